@@ -2,6 +2,7 @@ package org.folio.rest.client;
 
 import java.util.Map;
 import io.vertx.core.Future;
+import org.folio.rest.jaxrs.model.Configurations;
 import org.folio.rest.util.OkapiConnectionParams;
 import org.folio.service.PasswordResetSetting;
 
@@ -18,4 +19,14 @@ public interface ConfigurationClient {
    * @return future containing found configuration code to value map
    */
   Future<Map<PasswordResetSetting, String>> lookupConfigByModuleName(String moduleName, OkapiConnectionParams okapiConnectionParams);
+
+  /**
+   * Searches for configuration entries by CQL query. Returns failed future in case of a non-200 response
+   *
+   * @param query                 CQL query
+   * @param limit                 maximum number of entries
+   * @param okapiConnectionParams connection params
+   * @return future containing found configuration entries
+   */
+  Future<Configurations> lookupConfigsByQuery(String query, int limit, OkapiConnectionParams okapiConnectionParams);
 }
@@ -39,7 +39,7 @@ public class CirculationStorageModuleClientImpl implements CirculationStorageMod
       .map(response -> {
         switch (response.getCode()) {
           case HttpStatus.SC_OK:
-            return response.getJson().getInteger("totalRecords");
+            return response.getTotalRecords();
           case HttpStatus.SC_NOT_FOUND:
             return 0;
           default:
@@ -59,7 +59,7 @@ public class CirculationStorageModuleClientImpl implements CirculationStorageMod
       .map(response -> {
         switch (response.getCode()) {
           case HttpStatus.SC_OK:
-            return response.getJson().getInteger("totalRecords");
+            return response.getTotalRecords();
           case HttpStatus.SC_NOT_FOUND:
             return 0;
           default:
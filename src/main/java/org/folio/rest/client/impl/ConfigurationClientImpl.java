@@ -1,6 +1,7 @@
 package org.folio.rest.client.impl;
 
 import static java.lang.String.format;
+import static org.folio.util.StringUtil.urlEncode;
 
 import io.vertx.core.Future;
 import io.vertx.core.http.HttpClient;
@@ -58,6 +59,24 @@ public class ConfigurationClientImpl implements ConfigurationClient {
       });
   }
 
+  @Override
+  public Future<Configurations> lookupConfigsByQuery(String query, int limit,
+                                                     OkapiConnectionParams okapiConnectionParams) {
+    LOG.debug("lookupConfigsByQuery:: looking for configs by query {}", query);
+
+    var requestUrl = format("%s?query=%s&offset=0&limit=%d",
+      okapiConnectionParams.getOkapiUrl() + configRequestPath, urlEncode(query), limit);
+    return RestUtil.doRequest(httpClient, requestUrl, HttpMethod.GET, okapiConnectionParams.buildHeaders(), null)
+      .map(response -> {
+        if (response.getCode() != HttpStatus.SC_OK) {
+          var logMessage =
+            format("Expected status code 200, got '%d' :%s", response.getCode(), response.getBody());
+          throw new OkapiModuleClientException(logMessage);
+        }
+        return response.getJson().mapTo(Configurations.class);
+      });
+  }
+
   private Map<PasswordResetSetting, String> convertConfigsToMap(Configurations configurations) {
     return configurations.getConfigs().stream()
       .filter(Config::getEnabled)
@@ -32,7 +32,7 @@ public class FeesFinesModuleClientImpl implements FeesFinesModuleClient {
       .map(response -> {
         switch (response.getCode()) {
           case HttpStatus.SC_OK:
-            return response.getJson().getInteger("totalRecords");
+            return response.getTotalRecords();
           case HttpStatus.SC_NOT_FOUND:
             return 0;
           default:
@@ -52,7 +52,7 @@ public class FeesFinesModuleClientImpl implements FeesFinesModuleClient {
       .map(response -> {
         switch (response.getCode()) {
           case HttpStatus.SC_OK:
-            return response.getJson().getInteger("totalRecords");
+            return response.getTotalRecords();
           case HttpStatus.SC_NOT_FOUND:
             return 0;
           default:
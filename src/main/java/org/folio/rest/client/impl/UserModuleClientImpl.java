@@ -95,7 +95,7 @@ public class UserModuleClientImpl implements UserModuleClient {
       .map(response -> {
         switch (response.getCode()) {
           case HttpStatus.SC_OK:
-            return response.getJson().getInteger("totalRecords");
+            return response.getTotalRecords();
           case HttpStatus.SC_NOT_FOUND:
             return 0;
           default:
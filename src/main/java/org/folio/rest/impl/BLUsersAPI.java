@@ -1,5 +1,6 @@
 package org.folio.rest.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.netty.handler.codec.http.cookie.ClientCookieDecoder;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.vertx.core.AsyncResult;
@@ -17,22 +18,20 @@ import org.apache.commons.collections4.map.CaseInsensitiveMap;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.folio.dbschema.ObjectMapperTool;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.client.CirculationStorageModuleClient;
-import org.folio.rest.client.ConfigurationsClient;
 import org.folio.rest.client.LoginAuthnCredentialsClient;
 import org.folio.rest.client.NotificationClient;
 import org.folio.rest.client.PermissionModuleClient;
 import org.folio.rest.client.UserModuleClient;
 import org.folio.rest.client.impl.AuthTokenClientImpl;
 import org.folio.rest.client.impl.CirculationStorageModuleClientImpl;
-import org.folio.rest.client.impl.ConfigurationClientImpl;
 import org.folio.rest.client.impl.FeesFinesModuleClientImpl;
 import org.folio.rest.client.impl.LoginAuthnCredentialsClientImpl;
 import org.folio.rest.client.impl.NotificationClientImpl;
 import org.folio.rest.client.impl.PasswordResetActionClientImpl;
 import org.folio.rest.client.impl.PermissionModuleClientImpl;
-import org.folio.rest.client.impl.SettingsClientImpl;
 import org.folio.rest.client.impl.UserModuleClientImpl;
 import org.folio.rest.exception.MultipleEntityException;
 import org.folio.rest.exception.UnprocessableEntityException;
@@ -55,17 +54,33 @@ import org.folio.rest.jaxrs.model.TokenExpiration;
 import org.folio.rest.jaxrs.model.UpdateCredentials;
 import org.folio.rest.jaxrs.model.User;
 import org.folio.rest.jaxrs.resource.BlUsers;
-import org.folio.rest.tools.client.BuildCQL;
-import org.folio.rest.tools.client.HttpClientFactory;
 import org.folio.rest.tools.client.Response;
 import org.folio.rest.tools.client.exceptions.PopulateTemplateException;
 import org.folio.rest.tools.client.interfaces.HttpClientInterface;
+import org.folio.rest.util.AssemblyExecutor;
 import org.folio.rest.util.ExceptionHelper;
 import org.folio.rest.util.FeatureFlags;
+import org.folio.rest.util.Fingerprints;
+import org.folio.rest.util.ChunkedJoinFetcher;
+import org.folio.rest.util.CompositeUserAssembler;
+import org.folio.rest.util.CompositeUserListWriter;
+import org.folio.rest.util.HttpClientPool;
+import org.folio.rest.util.PermissionCache;
+import org.folio.rest.util.PermissionSets;
+import org.folio.rest.util.ReferenceDataCache;
+import org.folio.rest.util.SelfResponseCache;
+import org.folio.rest.util.TokenClaims;
+import org.folio.rest.util.UpstreamRequestMemo;
+import org.folio.rest.util.UserSummaries;
+import org.folio.rest.util.UsersCursor;
+import org.folio.rest.util.UsersQueryCache;
+import org.folio.rest.util.UsersSubPages;
 import org.folio.rest.util.HttpClientUtil;
 import org.folio.rest.util.OkapiConnectionParams;
 import org.folio.service.PasswordResetLinkService;
 import org.folio.service.PasswordResetLinkServiceImpl;
+import org.folio.service.config.TenantConfigurationService;
+import org.folio.service.config.TenantConfigurationServiceImpl;
 import org.folio.service.consortia.CrossTenantUserService;
 import org.folio.service.consortia.CrossTenantUserServiceImpl;
 import org.folio.service.password.UserPasswordService;
@@ -81,24 +96,28 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static org.apache.commons.lang3.StringUtils.substringAfterLast;
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
 
 /**
  * @author shale
@@ -112,9 +131,17 @@ public class BLUsersAPI implements BlUsers {
   private static final String PERMISSIONS_INCLUDE = "perms";
   private static final String PROXIESFOR_INCLUDE = "proxiesfor";
   private static final String SERVICEPOINTS_INCLUDE = "servicepoints";
+  //includes that login and _self assemble the same way
+  private static final Set<String> SELF_CACHEABLE_INCLUDES =
+    Set.of(GROUPS_INCLUDE, PERMISSIONS_INCLUDE, SERVICEPOINTS_INCLUDE);
 
   private static final String EXPANDED_PERMISSIONS_INCLUDE = "expanded_perms";
   private static final String EXPANDED_SERVICEPOINTS_INCLUDE = "expanded_servicepoints";
+  //full permission definitions unless names-only expanded permissions are configured
+  private static final boolean EXPANDED_PERMISSIONS_NAMES_ONLY = getEnvOrDefault(
+    "expanded-permissions.names-only", "EXPANDED_PERMISSIONS_NAMES_ONLY", false, Boolean::parseBoolean);
+  private static final String EXPANDED_PERMISSIONS_QUERY = EXPANDED_PERMISSIONS_NAMES_ONLY
+    ? "?expanded=true" : "?expanded=true&full=true";
   private static final Logger logger = LogManager.getLogger(BLUsersAPI.class);
 
   public static final String OKAPI_URL_HEADER = "x-okapi-url";
@@ -137,9 +164,13 @@ public class BLUsersAPI implements BlUsers {
   public static final String FORGOTTEN_PASSWORD_FOUND_INACTIVE = "forgotten.password.found.inactive";//NOSONAR
 
   private static final String QUERY_LIMIT = "&limit=1000";
+  private static final int MAX_PERMISSION_DEPTH = 10;
+  private static final int PROXIES_PER_USER = 100;
 
   private static final Pattern HOST_PORT_PATTERN = Pattern.compile("https?://([^:/]+)(?::?(\\d+)?)");
   private static final String UNDEFINED_USER = "UNDEFINED_USER__";
+  private static final Pattern UUID_PATTERN =
+    Pattern.compile("^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
 
   private static final String LOGIN_ENDPOINT = "/authn/login-with-expiry";
   private static final String LOGIN_ENDPOINT_LEGACY = "/authn/login";
@@ -148,6 +179,7 @@ public class BLUsersAPI implements BlUsers {
 
   private UserPasswordService userPasswordService;
   private PasswordResetLinkService passwordResetLinkService;
+  private TenantConfigurationService tenantConfigurationService;
   private NotificationClient notificationClient;
   private OpenTransactionsService openTransactionsService;
   private UserModuleClient userClient;
@@ -156,6 +188,7 @@ public class BLUsersAPI implements BlUsers {
   private CirculationStorageModuleClient circulationStorageModuleClient;
   private PermissionModuleClient permissionModuleClient;
   private LoginAuthnCredentialsClient loginAuthnCredentialsClient;
+  private AssemblyExecutor assemblyExecutor;
 
   public BLUsersAPI(Vertx vertx, String tenantId) { //NOSONAR
     this.userPasswordService = UserPasswordService
@@ -164,9 +197,9 @@ public class BLUsersAPI implements BlUsers {
     this.notificationClient = new NotificationClientImpl(httpClient);
 
     userClient = new UserModuleClientImpl(httpClient);
+    tenantConfigurationService = TenantConfigurationServiceImpl.getInstance(vertx);
     passwordResetLinkService = new PasswordResetLinkServiceImpl(
-      new ConfigurationClientImpl(httpClient),
-      new SettingsClientImpl(httpClient),
+      tenantConfigurationService,
       new AuthTokenClientImpl(httpClient),
       this.notificationClient,
       new PasswordResetActionClientImpl(httpClient),
@@ -182,6 +215,7 @@ public class BLUsersAPI implements BlUsers {
     );
     crossTenantUserService = new CrossTenantUserServiceImpl(httpClient);
     this.permissionModuleClient = new PermissionModuleClientImpl(httpClient);
+    this.assemblyExecutor = AssemblyExecutor.getInstance(vertx);
     this.loginAuthnCredentialsClient = new LoginAuthnCredentialsClientImpl(httpClient);
   }
 
@@ -193,12 +227,20 @@ public class BLUsersAPI implements BlUsers {
     return defaultIncludes;
   }
 
+  /**
+   * Service points were never resolved for the default includes of a list, so they are only
+   * fetched for a list that asks for them.
+   */
+  private List<String> getDefaultListIncludes() {
+    return List.of(GROUPS_INCLUDE, PERMISSIONS_INCLUDE);
+  }
+
   @Override
   public void getBlUsersByUsernameByUsername(String username, List<String> include,
-    boolean expandPerms, Map<String, String> okapiHeaders,
+    boolean expandPerms, String permissionsFingerprint, Map<String, String> okapiHeaders,
     Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler,
     Context vertxContext) {
-    run(null, username, expandPerms, include, okapiHeaders, asyncResultHandler);
+    run(null, username, expandPerms, include, permissionsFingerprint, okapiHeaders, asyncResultHandler);
   }
 
   Consumer<Response> handlePreviousResponse(boolean requireOneResult,
@@ -310,13 +352,17 @@ public class BLUsersAPI implements BlUsers {
   }
 
   @Override
-  public void getBlUsersByIdById(String userid, List<String> include, boolean expandPerms, Map<String, String> okapiHeaders,
+  public void getBlUsersByIdById(String userid, List<String> include, boolean expandPerms,
+    String permissionsFingerprint, Map<String, String> okapiHeaders,
     Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler, Context vertxContext) {
-    run(userid, null, expandPerms, include, okapiHeaders, asyncResultHandler);
+    run(userid, null, expandPerms, include, permissionsFingerprint, okapiHeaders, asyncResultHandler);
   }
 
+  /**
+   * @param permissionsFingerprint - fingerprint of the permissions the client has, null for none
+   */
   private void run(String userid, String username, Boolean expandPerms,
-          List<String> include, Map<String, String> okapiHeaders,
+          List<String> include, String permissionsFingerprint, Map<String, String> okapiHeaders,
           Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler) {
 
     //works on single user, no joins needed , just aggregate
@@ -331,8 +377,8 @@ public class BLUsersAPI implements BlUsers {
     String okapiURL = okapiHeaders.get(OKAPI_URL_HEADER);
     okapiHeaders.remove(OKAPI_URL_HEADER);
 
-    //HttpModuleClient2 client = new HttpModuleClient2(okapiURL, tenant);
-    HttpClientInterface client = HttpClientFactory.getHttpClient(okapiURL, tenant);
+    HttpClientPool.Lease lease = HttpClientPool.acquire(okapiURL, tenant);
+    HttpClientInterface client = lease.getClient();
 
     CompletableFuture<Response>[] userIdResponse = new CompletableFuture[1];
     String userTemplate = "";
@@ -356,7 +402,7 @@ public class BLUsersAPI implements BlUsers {
         mode[0] = "username";
       }
     } catch (Exception ex) {
-      client.closeClient();
+      lease.release();
       asyncResultHandler.handle(Future.succeededFuture(
         GetBlUsersByIdByIdResponse.respond500WithTextPlain(ex.getLocalizedMessage())));
       return;
@@ -366,51 +412,66 @@ public class BLUsersAPI implements BlUsers {
     Map<String, CompletableFuture<Response>> completedLookup = new HashMap<>();
     logger.info("Received includes: {}", String.join(",", include));
 
-    for (int i = 0; i < includeCount; i++) {
-
-      if (include.get(i).equals(PERMISSIONS_INCLUDE)){
-        //call perms once the /users?query=username={username} (same as creds) completes
-        CompletableFuture<Response> permResponse = userIdResponse[0].thenCompose(
+    //the id-keyed includes don't need the user record when the id is known up front,
+    //only the patron group lookup depends on the user body
+    boolean idKnown = userid != null && UUID_PATTERN.matcher(userid).matches();
+    try {
+      for (int i = 0; i < includeCount; i++) {
+
+        if (include.get(i).equals(PERMISSIONS_INCLUDE)){
+          //call perms once the /users?query=username={username} (same as creds) completes,
+          //or right away when the user id is known
+          CompletableFuture<Response> permResponse = idKnown
+            ? parallelInclude(userIdResponse[0], permissionLookup(lease, "/perms/users?query=userId==" + userid,
+              okapiHeaders), aRequestHasFailed, asyncResultHandler)
+            : userIdResponse[0].thenCompose(
               client.chainedRequest("/perms/users?query=userId=="+userTemplate,
               okapiHeaders, null, handlePreviousResponse(true, false, true,
               aRequestHasFailed, asyncResultHandler)));
-        requestedIncludes.add(permResponse);
-        completedLookup.put(PERMISSIONS_INCLUDE, permResponse);
-      }
-      else if(include.get(i).equals(GROUPS_INCLUDE)){
-        CompletableFuture<Response> groupResponse = userIdResponse[0].thenCompose(
-          client.chainedRequest("/groups/"+groupTemplate, okapiHeaders, null,
-            handlePreviousResponse(true, false, true, aRequestHasFailed, asyncResultHandler)));
-        requestedIncludes.add(groupResponse);
-        completedLookup.put(GROUPS_INCLUDE, groupResponse);
-      }
-      else if(include.get(i).equals(PROXIESFOR_INCLUDE)) {
-        CompletableFuture<Response> proxiesforResponse = userIdResponse[0].thenCompose(
-          client.chainedRequest("/proxiesfor?query=userId==" + userTemplate, okapiHeaders,
-            null, handlePreviousResponse(true, false, true, aRequestHasFailed,
-              asyncResultHandler)));
-        requestedIncludes.add(proxiesforResponse);
-        completedLookup.put(PROXIESFOR_INCLUDE, proxiesforResponse);
-      }
-      else if(include.get(i).equals(SERVICEPOINTS_INCLUDE)) {
-        CompletableFuture<Response> servicePointsResponse = userIdResponse[0].thenCompose(
-          client.chainedRequest("/service-points-users?query=userId==" + userTemplate + QUERY_LIMIT,
-              okapiHeaders, null, handlePreviousResponse(false, false, false,
-              aRequestHasFailed, asyncResultHandler))
-        );
-        requestedIncludes.add(servicePointsResponse);
-        completedLookup.put(SERVICEPOINTS_INCLUDE, servicePointsResponse);
+          requestedIncludes.add(permResponse);
+          completedLookup.put(PERMISSIONS_INCLUDE, permResponse);
+        }
+        else if(include.get(i).equals(GROUPS_INCLUDE)){
+          CompletableFuture<Response> groupResponse = lookupGroup(userIdResponse[0], groupTemplate, lease,
+            okapiHeaders, handlePreviousResponse(true, false, true, aRequestHasFailed, asyncResultHandler));
+          requestedIncludes.add(groupResponse);
+          completedLookup.put(GROUPS_INCLUDE, groupResponse);
+        }
+        else if(include.get(i).equals(PROXIESFOR_INCLUDE)) {
+          CompletableFuture<Response> proxiesforResponse = idKnown
+            ? parallelInclude(userIdResponse[0], client.request("/proxiesfor?query=userId==" + userid,
+              okapiHeaders), aRequestHasFailed, asyncResultHandler)
+            : userIdResponse[0].thenCompose(
+              client.chainedRequest("/proxiesfor?query=userId==" + userTemplate, okapiHeaders,
+              null, handlePreviousResponse(true, false, true, aRequestHasFailed,
+                asyncResultHandler)));
+          requestedIncludes.add(proxiesforResponse);
+          completedLookup.put(PROXIESFOR_INCLUDE, proxiesforResponse);
+        }
+        else if(include.get(i).equals(SERVICEPOINTS_INCLUDE)) {
+          CompletableFuture<Response> servicePointsResponse = idKnown
+            ? parallelInclude(userIdResponse[0], client.request("/service-points-users?query=userId=="
+              + userid + QUERY_LIMIT, okapiHeaders), aRequestHasFailed, asyncResultHandler)
+            : userIdResponse[0].thenCompose(
+              client.chainedRequest("/service-points-users?query=userId==" + userTemplate + QUERY_LIMIT,
+                okapiHeaders, null, handlePreviousResponse(false, false, false,
+                aRequestHasFailed, asyncResultHandler)));
+          requestedIncludes.add(servicePointsResponse);
+          completedLookup.put(SERVICEPOINTS_INCLUDE, servicePointsResponse);
+        }
       }
+    } catch (Exception ex) {
+      lease.release();
+      asyncResultHandler.handle(Future.succeededFuture(
+        GetBlUsersByIdByIdResponse.respond500WithTextPlain(ex.getLocalizedMessage())));
+      return;
     }
     if(expandPerms != null && expandPerms && completedLookup.containsKey(
         PERMISSIONS_INCLUDE)) {
       logger.info("Getting expanded permissions");
-      CompletableFuture<Response> expandPermsResponse = completedLookup.get(
-          PERMISSIONS_INCLUDE)
-          .thenCompose(
-              client.chainedRequest("/perms/users/{permissionUsers[0].id}/permissions?expanded=true&full=true",
-              okapiHeaders, true, null, handlePreviousResponse(true, false, true,
-              aRequestHasFailed, asyncResultHandler)));
+      CompletableFuture<Response> expandPermsResponse = expandedPermissionLookup(
+          completedLookup.get(PERMISSIONS_INCLUDE), lease, okapiHeaders,
+          handlePreviousResponse(true, false, true, aRequestHasFailed, asyncResultHandler));
       requestedIncludes.add(expandPermsResponse);
       completedLookup.put(EXPANDED_PERMISSIONS_INCLUDE, expandPermsResponse);
     }
@@ -418,14 +479,14 @@ public class BLUsersAPI implements BlUsers {
 
       if (completedLookup.containsKey(SERVICEPOINTS_INCLUDE)) {
         CompletableFuture<Response> expandSPUResponse = expandServicePoints(
-          completedLookup.get(SERVICEPOINTS_INCLUDE), client, aRequestHasFailed,
+          completedLookup.get(SERVICEPOINTS_INCLUDE), lease, aRequestHasFailed,
           okapiHeaders, asyncResultHandler);
         completedLookup.put(EXPANDED_SERVICEPOINTS_INCLUDE, expandSPUResponse);
         requestedIncludes.add(expandSPUResponse);
 
       }
     } catch (Exception ex) {
-      client.closeClient();
+      lease.release();
       asyncResultHandler.handle(Future.succeededFuture(
         GetBlUsersByIdByIdResponse.respond500WithTextPlain(ex.getLocalizedMessage())));
       return;
@@ -476,10 +537,8 @@ public class BLUsersAPI implements BlUsers {
 
         cf = completedLookup.get(EXPANDED_PERMISSIONS_INCLUDE);
         if(cf != null && cf.get().getBody() != null){
-          //data coming in from the service isnt returned as required by the composite user schema
-          JsonObject j = new JsonObject();
-          j.put("permissions", cf.get().getBody().getJsonArray("permissionNames"));
-          cu.setPermissions((Permissions)Response.convertToPojo(j, Permissions.class));
+          cu.setPermissions(new Permissions().withPermissions(
+            expandedPermissions(cf.get().getBody().getJsonArray("permissionNames"))));
         }
         cf = completedLookup.get(PERMISSIONS_INCLUDE);
         if(cf != null && cf.get().getBody() != null){
@@ -505,6 +564,9 @@ public class BLUsersAPI implements BlUsers {
             cu.setProxiesFor(proxyForList);
           }
         }
+        if (completedLookup.containsKey(PERMISSIONS_INCLUDE)) {
+          fingerprintPermissions(cu, permissionsFingerprint);
+        }
 
         fillCompositeUserWithServicePoint (completedLookup, cu);
 
@@ -527,148 +589,438 @@ public class BLUsersAPI implements BlUsers {
           }
         }
       } finally {
-        client.closeClient();
+        lease.release();
       }
     });
   }
 
   @Override
   public void getBlUsers(String query, int offset, int limit,
-      List<String> include, Map<String, String> okapiHeaders,
+      List<String> include, String cursor, boolean expandPerms, boolean countOnly,
+      Map<String, String> okapiHeaders,
       Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler, Context vertxContext) {
 
+    //identical queries of the same caller within a few seconds share one response
+    String key = UsersQueryCache.key(okapiHeaders.get(OKAPI_URL_HEADER), okapiHeaders.get(OKAPI_TENANT_HEADER),
+      okapiHeaders.get(OKAPI_TOKEN_HEADER), query, include, offset, limit, cursor, expandPerms, countOnly);
+    UsersQueryCache.getInstance().get(key, handler -> {
+      if (countOnly) {
+        countUsers(query, okapiHeaders, handler);
+      } else {
+        listUsers(query, offset, limit, include, cursor, expandPerms, okapiHeaders, handler);
+      }
+    }, asyncResultHandler);
+  }
+
+  private void listUsers(String query, int offset, int limit, List<String> include, String cursor,
+      boolean expandPerms, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler) {
+
     //works on multiple users, joins needed to aggregate
 
+    String usersQuery = query;
+    if (cursor != null) {
+      try {
+        if (offset != 0) {
+          throw new IllegalArgumentException("cursor paging can't be combined with an offset");
+        }
+        usersQuery = UsersCursor.query(query, cursor);
+      } catch (IllegalArgumentException e) {
+        asyncResultHandler.handle(Future.succeededFuture(
+          GetBlUsersResponse.respond400WithTextPlain(e.getMessage())));
+        return;
+      }
+    }
     boolean[] aRequestHasFailed = new boolean[]{false};
     String tenant = okapiHeaders.get(OKAPI_TENANT_HEADER);
     String okapiURL = okapiHeaders.get(OKAPI_URL_HEADER);
-    HttpClientInterface client = HttpClientFactory.getHttpClient(okapiURL, tenant);
-    CompletableFuture<Response> []userIdResponse = new CompletableFuture[1];
+    HttpClientPool.Lease lease = HttpClientPool.acquire(okapiURL, tenant);
+    //by default return perms and groups
+    List<String> includes = include == null || include.isEmpty() ? getDefaultListIncludes() : include;
+    List<UsersSubPage> subPages = new ArrayList<>();
     try {
       okapiHeaders.remove(OKAPI_URL_HEADER);
-
-      if (include == null || include.isEmpty()) {
-        //by default return perms and groups
-        include = getDefaultIncludes();
-      }
-
-      StringBuffer userUrl = new StringBuffer("/users?");
-      if (query != null) {
-        userUrl.append("query=").append(PercentCodec.encode(query)).append("&");
+      //large pages sorted by id are fetched as parallel sub-pages,
+      //the joins of a sub-page start once it has arrived
+      for (UsersSubPages.Range range : UsersSubPages.split(usersQuery, offset, limit)) {
+        StringBuilder userUrl = new StringBuilder("/users?");
+        if (usersQuery != null) {
+          userUrl.append("query=").append(PercentCodec.encode(usersQuery)).append("&");
+        }
+        userUrl.append("offset=").append(range.offset()).append("&limit=").append(range.limit());
+        subPages.add(requestUsersSubPage(userUrl.toString(), includes, expandPerms, lease, okapiHeaders,
+          aRequestHasFailed, asyncResultHandler));
       }
-      userUrl.append("offset=").append(offset).append("&limit=").append(limit);
-      userIdResponse[0] = client.request(userUrl.toString(), okapiHeaders);
     } catch (Exception ex) {
-      client.closeClient();
+      lease.release();
       asyncResultHandler.handle(Future.succeededFuture(
         GetBlUsersByIdByIdResponse.respond500WithTextPlain(ex.getLocalizedMessage())));
       return;
     }
-    int includeCount = include.size();
-    ArrayList<CompletableFuture<Response>> requestedIncludes = new ArrayList<>();
-    //CompletableFuture<Response> []requestedIncludes = new CompletableFuture[includeCount+1];
-    Map<String, CompletableFuture<Response>> completedLookup = new HashMap<>();
+    List<CompletableFuture<Response>> requests = new ArrayList<>();
+    subPages.forEach(subPage -> requests.addAll(subPage.requests()));
+    CompletableFuture.allOf(requests.toArray(new CompletableFuture[requests.size()]))
+    .thenAccept((response) -> {
+      try {
+        List<CompositeUserListWriter.Page> pages = new ArrayList<>(subPages.size());
+        JsonArray users = new JsonArray();
+        for (UsersSubPage subPage : subPages) {
+          CompositeUserListWriter.Page page = assembleUsersSubPage(subPage, aRequestHasFailed, asyncResultHandler);
+          if(aRequestHasFailed[0]){
+            return;
+          }
+          pages.add(page);
+          users.addAll(page.users());
+        }
+        if (users.isEmpty()) {
+          asyncResultHandler.handle(Future.succeededFuture(
+            GetBlUsersResponse.respond200WithApplicationJson(new CompositeUserListObject())));
+          return;
+        }
+        //serialize one composite user at a time, sub-page by sub-page, off the event loop for large pages
+        String nextCursor = cursor == null ? null : UsersCursor.next(users, limit);
+        assemblyExecutor.execute(users.size(), () -> CompositeUserListWriter.write(pages, nextCursor))
+          .onSuccess(compositeUsers -> asyncResultHandler.handle(Future.succeededFuture(jsonResponse(compositeUsers))))
+          .onFailure(e -> {
+            logger.error(e.getMessage(), e);
+            asyncResultHandler.handle(Future.succeededFuture(
+              GetBlUsersResponse.respond500WithTextPlain(e.getLocalizedMessage())));
+          });
+      } catch (Exception e) {
+        if(!aRequestHasFailed[0]){
+          asyncResultHandler.handle(Future.succeededFuture(
+            GetBlUsersResponse.respond500WithTextPlain(e.getLocalizedMessage())));
+        }
+        logger.error(e.getMessage(), e);
+      } finally {
+        lease.release();
+      }
+    });
+  }
+
+  /**
+   * Users request of a sub-page and the include requests chained onto it.
+   */
+  private record UsersSubPage(CompletableFuture<Response> users,
+      Map<String, CompletableFuture<Response>> includes) {
+
+    List<CompletableFuture<Response>> requests() {
+      List<CompletableFuture<Response>> requests = new ArrayList<>(includes.values());
+      requests.add(users);
+      return requests;
+    }
+  }
 
-    for (int i = 0; i < includeCount; i++) {
+  private UsersSubPage requestUsersSubPage(String userUrl, List<String> include, boolean expandPerms,
+      HttpClientPool.Lease lease, Map<String, String> okapiHeaders, boolean[] aRequestHasFailed,
+      Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler) throws Exception {
 
-      if (include.get(i).equals(PERMISSIONS_INCLUDE)){
-        //call perms once the /users?query=username={username} (same as creds) completes
-        CompletableFuture<Response> permResponse = userIdResponse[0].thenCompose(
-              client.chainedRequest("/perms/users", okapiHeaders, new BuildCQL(null, "users[*].id", "userId"),
-                handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler)));
-        requestedIncludes.add(permResponse);
+    HttpClientInterface client = lease.getClient();
+    CompletableFuture<Response> userResponse = client.request(userUrl, okapiHeaders);
+    Map<String, CompletableFuture<Response>> completedLookup = new HashMap<>();
+
+    for (String name : include) {
+      if (name.equals(PERMISSIONS_INCLUDE)) {
+        //call perms once the users of the sub-page have arrived
+        CompletableFuture<Response> permResponse = joinRequest(userResponse, client, "/perms/users",
+          "permissionUsers", "userId", 1, okapiHeaders,
+          handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler));
         completedLookup.put(PERMISSIONS_INCLUDE, permResponse);
+        if (expandPerms) {
+          completedLookup.put(EXPANDED_PERMISSIONS_INCLUDE,
+            lookupPermissionDefinitions(permResponse, client, okapiHeaders));
+        }
+      } else if (name.equals(SERVICEPOINTS_INCLUDE)) {
+        CompletableFuture<Response> spuResponse = joinRequest(userResponse, client, "/service-points-users",
+          "servicePointsUsers", "userId", 1, okapiHeaders,
+          handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler));
+        completedLookup.put(SERVICEPOINTS_INCLUDE, spuResponse);
+        completedLookup.put(EXPANDED_SERVICEPOINTS_INCLUDE, lookupServicePoints(spuResponse, lease, okapiHeaders));
+      } else if (name.equals(GROUPS_INCLUDE)) {
+        completedLookup.put(GROUPS_INCLUDE, lookupGroups(userResponse, lease, okapiHeaders,
+          handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler)));
+      } else if (name.equals(PROXIESFOR_INCLUDE)) {
+        completedLookup.put(PROXIESFOR_INCLUDE, joinRequest(userResponse, client, "/proxiesfor",
+          "proxiesFor", "userId", PROXIES_PER_USER, okapiHeaders,
+          handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler)));
       }
-      else if(include.get(i).equals(GROUPS_INCLUDE)){
-        CompletableFuture<Response> groupResponse = userIdResponse[0].thenCompose(
-          client.chainedRequest("/groups", okapiHeaders, new BuildCQL(null, "users[*].patronGroup", "id"),
-            handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler)));
-        requestedIncludes.add(groupResponse);
-        completedLookup.put(GROUPS_INCLUDE, groupResponse);
-      }
-      else if(include.get(i).equals(PROXIESFOR_INCLUDE)) {
-        CompletableFuture<Response> proxiesforResponse = userIdResponse[0].thenCompose(
-          client.chainedRequest("/proxiesfor", okapiHeaders, new BuildCQL(null, "users[*].id", "userId"),
-            handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler)));
-        requestedIncludes.add(proxiesforResponse);
-        completedLookup.put(PROXIESFOR_INCLUDE, proxiesforResponse);
+    }
+    return new UsersSubPage(userResponse, completedLookup);
+  }
+
+  /**
+   * @return users of the completed sub-page with the assembler of their composite users, or null
+   * if a request has failed
+   */
+  private CompositeUserListWriter.Page assembleUsersSubPage(UsersSubPage subPage, boolean[] aRequestHasFailed,
+      Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler)
+      throws InterruptedException, ExecutionException {
+
+    Response userResponse = subPage.users().get();
+    Map<String, CompletableFuture<Response>> completedLookup = subPage.includes();
+    if (completedLookup.isEmpty()) {
+      //no includes requested, so users response was not validated, so validate
+      handleResponse(userResponse, false, true, true, aRequestHasFailed, asyncResultHandler);
+    }
+    if (aRequestHasFailed[0]) {
+      return null;
+    }
+    JsonArray users = userResponse.getBody().getJsonArray("users");
+    if (users == null || users.isEmpty()) {
+      return new CompositeUserListWriter.Page(new JsonArray(), null);
+    }
+    JsonArray groups = includedRecords(completedLookup.get(GROUPS_INCLUDE), "usergroups",
+      aRequestHasFailed, asyncResultHandler);
+    JsonArray permissionUsers = includedRecords(completedLookup.get(PERMISSIONS_INCLUDE), "permissionUsers",
+      aRequestHasFailed, asyncResultHandler);
+    JsonArray proxiesFor = includedRecords(completedLookup.get(PROXIESFOR_INCLUDE), "proxiesFor",
+      aRequestHasFailed, asyncResultHandler);
+    JsonArray servicePointsUsers = includedRecords(completedLookup.get(SERVICEPOINTS_INCLUDE),
+      "servicePointsUsers", aRequestHasFailed, asyncResultHandler);
+    JsonArray servicePoints = includedRecords(completedLookup.get(EXPANDED_SERVICEPOINTS_INCLUDE),
+      "servicepoints", aRequestHasFailed, asyncResultHandler);
+    JsonArray permissions = includedRecords(completedLookup.get(EXPANDED_PERMISSIONS_INCLUDE),
+      "permissions", aRequestHasFailed, asyncResultHandler);
+    if (aRequestHasFailed[0]) {
+      return null;
+    }
+    //hash join groups on patronGroup, permission users, proxies and service points users on the user id
+    return new CompositeUserListWriter.Page(users, new CompositeUserAssembler(groups, permissionUsers,
+      proxiesFor, servicePointsUsers, servicePoints, permissions, !EXPANDED_PERMISSIONS_NAMES_ONLY));
+  }
+
+  /**
+   * Number of users matching the query, from a single {@code limit=0} request to {@code /users}
+   * without any includes.
+   */
+  private void countUsers(String query, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler) {
+
+    boolean[] aRequestHasFailed = new boolean[]{false};
+    HttpClientPool.Lease lease = HttpClientPool.acquire(okapiHeaders.get(OKAPI_URL_HEADER),
+      okapiHeaders.get(OKAPI_TENANT_HEADER));
+    CompletableFuture<Response> countResponse;
+    try {
+      okapiHeaders.remove(OKAPI_URL_HEADER);
+      StringBuilder userUrl = new StringBuilder("/users?");
+      if (query != null) {
+        userUrl.append("query=").append(PercentCodec.encode(query)).append("&");
       }
+      userUrl.append("limit=0");
+      countResponse = lease.getClient().request(userUrl.toString(), okapiHeaders);
+    } catch (Exception ex) {
+      lease.release();
+      asyncResultHandler.handle(Future.succeededFuture(
+        GetBlUsersResponse.respond500WithTextPlain(ex.getLocalizedMessage())));
+      return;
     }
-    requestedIncludes.add(userIdResponse[0]);
-    CompletableFuture.allOf(requestedIncludes.toArray(new CompletableFuture[requestedIncludes.size()]))
-    .thenAccept((response) -> {
+    countResponse.whenComplete((response, throwable) -> {
       try {
-        Response userResponse = userIdResponse[0].get();
-        if(requestedIncludes.size() == 1){
-          //no includes requested, so users response was not validated, so validate
-          handleResponse(userResponse, false, true, true, aRequestHasFailed, asyncResultHandler);
+        if (throwable != null) {
+          logger.error(throwable.getMessage(), throwable);
+          asyncResultHandler.handle(Future.succeededFuture(
+            GetBlUsersResponse.respond500WithTextPlain(throwable.getLocalizedMessage())));
+          return;
         }
-        if(aRequestHasFailed[0]){
+        handleResponse(response, false, false, false, aRequestHasFailed, asyncResultHandler);
+        if (aRequestHasFailed[0]) {
           return;
         }
-        CompositeUserListObject cu = new CompositeUserListObject();
-        Response composite = new Response();
-        //map an array of users returned by /users into an array of compositeUser objects - "compositeUser": []
-        //name each object in the array "users" -  "compositeUser": [ { "users": { ...
-        composite.mapFrom(userResponse, "users[*]", "compositeUser", "users", true);
-        if(composite.getBody().isEmpty()){
-          if(!aRequestHasFailed[0]){
-            asyncResultHandler.handle(Future.succeededFuture(
-              GetBlUsersResponse.respond200WithApplicationJson(cu)));
-          }
-          aRequestHasFailed[0] = true;
+        Integer totalRecords = response.getBody().getInteger("totalRecords");
+        asyncResultHandler.handle(Future.succeededFuture(
+          GetBlUsersResponse.respond200WithApplicationJson(new CompositeUserListObject()
+            .withTotalResults(totalRecords == null ? 0 : totalRecords)
+            .withRecordCount(0))));
+      } finally {
+        lease.release();
+      }
+    });
+  }
+
+  @Override
+  public void getBlUsersSummaries(String query, int offset, int limit, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler, Context vertxContext) {
+
+    boolean[] aRequestHasFailed = new boolean[]{false};
+    HttpClientPool.Lease lease = HttpClientPool.acquire(okapiHeaders.get(OKAPI_URL_HEADER),
+      okapiHeaders.get(OKAPI_TENANT_HEADER));
+    CompletableFuture<Response> usersResponse;
+    try {
+      okapiHeaders.remove(OKAPI_URL_HEADER);
+      StringBuilder userUrl = new StringBuilder("/users?");
+      if (query != null) {
+        userUrl.append("query=").append(PercentCodec.encode(query)).append("&");
+      }
+      userUrl.append("offset=").append(offset).append("&limit=").append(limit);
+      usersResponse = lease.getClient().request(userUrl.toString(), okapiHeaders);
+    } catch (Exception ex) {
+      lease.release();
+      asyncResultHandler.handle(Future.succeededFuture(
+        GetBlUsersSummariesResponse.respond500WithTextPlain(ex.getLocalizedMessage())));
+      return;
+    }
+    //patron group names come from the reference data cache when possible
+    lookupGroups(usersResponse, lease, okapiHeaders,
+      handlePreviousResponse(false, false, true, aRequestHasFailed, asyncResultHandler))
+    .whenComplete((groupsResponse, throwable) -> {
+      try {
+        if (throwable != null) {
+          logger.error(throwable.getMessage(), throwable);
+          asyncResultHandler.handle(Future.succeededFuture(
+            GetBlUsersSummariesResponse.respond500WithTextPlain(throwable.getLocalizedMessage())));
           return;
         }
-        Response groupResponse = null;
-        Response permsResponse = null;
-        Response proxiesforResponse = null;
-        CompletableFuture<Response> cf = completedLookup.get(GROUPS_INCLUDE);
-        if(cf != null){
-          groupResponse = cf.get();
-          //check for errors
-          handleResponse(groupResponse, false, true, false, aRequestHasFailed, asyncResultHandler);
-          if(!aRequestHasFailed[0]){
-            //join into the compositeUser array groups joining on id and patronGroup field values. assume only one group per user
-            //hence the usergroup[0] field to push into ../../groups otherwise (if many) leave out the [0] and pass in "usergroups"
-            composite.joinOn("compositeUser[*].users.patronGroup", groupResponse, "usergroups[*].id", "../", "../../groups", false);
-          }
+        handleResponse(groupsResponse, false, false, false, aRequestHasFailed, asyncResultHandler);
+        if (aRequestHasFailed[0]) {
+          return;
         }
-        cf = completedLookup.get(PERMISSIONS_INCLUDE);
-        if(cf != null){
-          permsResponse = cf.get();
-          //check for errors
-          handleResponse(permsResponse, false, true, false, aRequestHasFailed, asyncResultHandler);
-          if(!aRequestHasFailed[0]){
-            composite.joinOn("compositeUser[*].users.id", permsResponse, "permissionUsers[*].userId", "../permissions", "../../permissions.permissions", false);
-          }
+        asyncResultHandler.handle(Future.succeededFuture(jsonResponse(UserSummaries.project(
+          usersResponse.join().getBody(), groupsResponse.getBody().getJsonArray("usergroups")).encode())));
+      } finally {
+        lease.release();
+      }
+    });
+  }
+
+  /**
+   * Records whose field matches the ids of the users, fetched in chunks once the users response
+   * has passed the check.
+   */
+  private static CompletableFuture<Response> joinRequest(CompletableFuture<Response> usersResponse,
+      HttpClientInterface client, String path, String collection, String field, int recordsPerUser,
+      Map<String, String> okapiHeaders, Consumer<Response> check) {
+
+    return usersResponse.thenCompose(users -> {
+      check.accept(users);
+      if (!isSuccessWithoutError(users)) {
+        return CompletableFuture.completedFuture(users);
+      }
+      return ChunkedJoinFetcher.getInstance().fetch(client, path, collection, field,
+        ChunkedJoinFetcher.values(users.getBody().getJsonArray("users"), "id"), recordsPerUser, okapiHeaders);
+    });
+  }
+
+  /**
+   * Service points of a servicePointsUsers collection as a servicepoints collection, served from
+   * {@link ReferenceDataCache} when all of them are cached. A failed service points users
+   * response is returned as it is.
+   */
+  private static CompletableFuture<Response> lookupServicePoints(CompletableFuture<Response> spuResponse,
+      HttpClientPool.Lease lease, Map<String, String> okapiHeaders) {
+
+    return spuResponse.thenCompose(spu -> {
+      if (!isSuccessWithoutError(spu)) {
+        return CompletableFuture.completedFuture(spu);
+      }
+      Set<String> servicePointIds = new LinkedHashSet<>();
+      JsonArray servicePointsUsers = spu.getBody().getJsonArray("servicePointsUsers");
+      servicePointIds.addAll(ChunkedJoinFetcher.values(servicePointsUsers, "defaultServicePointId"));
+      for (Object entry : servicePointsUsers == null ? new JsonArray() : servicePointsUsers) {
+        JsonArray ids = entry instanceof JsonObject json ? json.getJsonArray("servicePointsIds") : null;
+        if (ids != null) {
+          ids.forEach(id -> servicePointIds.add((String) id));
         }
-        cf = completedLookup.get(PROXIESFOR_INCLUDE);
-        if(cf != null) {
-          proxiesforResponse = cf.get();
-          handleResponse(proxiesforResponse, false, true, false, aRequestHasFailed, asyncResultHandler);
-          if(!aRequestHasFailed[0]) {
-            composite.joinOn("compositeUser[*].users.id", proxiesforResponse, "proxiesFor[*].userId", "../", "../../proxiesFor", false);
+      }
+      List<JsonObject> cached = servicePointIds.isEmpty() ? List.of()
+        : ReferenceDataCache.getServicePoints(lease.getOkapiUrl(), lease.getTenant(), servicePointIds);
+      if (cached != null) {
+        return CompletableFuture.completedFuture(collectionResponse("servicepoints", cached));
+      }
+      return ChunkedJoinFetcher.getInstance()
+        .fetch(lease.getClient(), "/service-points", "servicepoints", "id", servicePointIds, 1, okapiHeaders)
+        .thenApply(servicePointsResponse -> {
+          if (isSuccessWithoutError(servicePointsResponse)) {
+            ReferenceDataCache.putServicePoints(lease.getOkapiUrl(), lease.getTenant(),
+              servicePointsResponse.getBody().getJsonArray("servicepoints"));
           }
+          return servicePointsResponse;
+        });
+    });
+  }
+
+  /**
+   * Definitions of the permissions of a permissionUsers collection and of all their
+   * sub-permissions as a permissions collection. Each level of sub-permissions is fetched in
+   * chunks for the whole page, so the number of requests depends on the nesting depth, not on
+   * the number of users. A failed response is returned as it is.
+   */
+  private static CompletableFuture<Response> lookupPermissionDefinitions(CompletableFuture<Response> permResponse,
+      HttpClientInterface client, Map<String, String> okapiHeaders) {
+
+    return permResponse.thenCompose(permissionUsers -> {
+      if (!isSuccessWithoutError(permissionUsers)) {
+        return CompletableFuture.completedFuture(permissionUsers);
+      }
+      Set<String> names = new LinkedHashSet<>();
+      JsonArray records = permissionUsers.getBody().getJsonArray("permissionUsers");
+      for (Object entry : records == null ? new JsonArray() : records) {
+        JsonArray permissions = entry instanceof JsonObject json ? json.getJsonArray("permissions") : null;
+        if (permissions != null) {
+          permissions.forEach(name -> names.add((String) name));
         }
-        @SuppressWarnings("unchecked")
-        List<CompositeUser> cuol = (List<CompositeUser>)Response.convertToPojo(composite.getBody().getJsonArray("compositeUser"), CompositeUser.class);
-        cu.setCompositeUsers(cuol);
-        if(!aRequestHasFailed[0]){
-          asyncResultHandler.handle(Future.succeededFuture(
-            GetBlUsersResponse.respond200WithApplicationJson(cu)));
-        }
-      } catch (Exception e) {
-        if(!aRequestHasFailed[0]){
-          asyncResultHandler.handle(Future.succeededFuture(
-            GetBlUsersResponse.respond500WithTextPlain(e.getLocalizedMessage())));
-        }
-        logger.error(e.getMessage(), e);
-      } finally {
-        client.closeClient();
       }
+      return lookupPermissionDefinitions(names, new LinkedHashMap<>(), 0, client, okapiHeaders);
     });
   }
 
+  private static CompletableFuture<Response> lookupPermissionDefinitions(Set<String> names,
+      Map<String, JsonObject> definitions, int depth, HttpClientInterface client,
+      Map<String, String> okapiHeaders) {
+
+    names.removeAll(definitions.keySet());
+    if (names.isEmpty() || depth >= MAX_PERMISSION_DEPTH) {
+      return CompletableFuture.completedFuture(
+        collectionResponse("permissions", new ArrayList<>(definitions.values())));
+    }
+    return ChunkedJoinFetcher.getInstance()
+      .fetch(client, "/perms/permissions", "permissions", "permissionName", names, 1, okapiHeaders)
+      .thenCompose(response -> {
+        if (!isSuccessWithoutError(response)) {
+          return CompletableFuture.completedFuture(response);
+        }
+        Set<String> subPermissions = new LinkedHashSet<>();
+        for (Object entry : response.getBody().getJsonArray("permissions")) {
+          if (entry instanceof JsonObject permission && permission.getString("permissionName") != null) {
+            definitions.putIfAbsent(permission.getString("permissionName"), permission);
+            subPermissions.addAll(CompositeUserAssembler.subPermissions(permission));
+          }
+        }
+        //names without a definition are not looked up again
+        names.forEach(name -> definitions.putIfAbsent(name, new JsonObject().put("permissionName", name)));
+        return lookupPermissionDefinitions(subPermissions, definitions, depth + 1, client, okapiHeaders);
+      });
+  }
+
+  /**
+   * 200 response with an already serialized JSON entity. RMB writes a String entity as it is,
+   * the generated code would only accept the POJO.
+   */
+  private static javax.ws.rs.core.Response jsonResponse(String json) {
+    return javax.ws.rs.core.Response.status(200)
+        .type(MediaType.APPLICATION_JSON)
+        .entity(json)
+        .build();
+  }
+
+  /**
+   * @return records of a completed include, or null if the include was not requested or has failed
+   */
+  private JsonArray includedRecords(CompletableFuture<Response> include, String name,
+      boolean[] aRequestHasFailed, Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler)
+      throws InterruptedException, ExecutionException {
+
+    if (include == null) {
+      return null;
+    }
+    Response response = include.get();
+    //check for errors
+    handleResponse(response, false, true, false, aRequestHasFailed, asyncResultHandler);
+    if (aRequestHasFailed[0]) {
+      return null;
+    }
+    return response.getBody().getJsonArray(name);
+  }
+
   @Override
   public void getBlUsersByUsernameOpenTransactionsByUsername(String username, Map<String, String> okapiHeaders,
                                                              Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler,
@@ -790,31 +1142,23 @@ public class BLUsersAPI implements BlUsers {
     return true;
   }
 
-  private String getUsername(String token) {
-    JsonObject payload = parseTokenPayload(token);
-    if(payload == null) { return null; }
-    String username = payload.getString("sub");
-    return username;
+  private String getUsername(JsonObject claims) {
+    return claims == null ? null : claims.getString("sub");
   }
 
-  private String getUserId(String token) {
-    JsonObject payload = parseTokenPayload(token);
-    if (payload == null) {
-      return null;
-    }
-    return payload.getString("user_id");
+  private String getUserId(JsonObject claims) {
+    return claims == null ? null : claims.getString("user_id");
   }
 
-  private String getTenant(String token) {
-    JsonObject payload = parseTokenPayload(token);
-    if (payload == null) {
+  private String getTenant(JsonObject claims) {
+    if (claims == null) {
       return null;
     }
-    String tenant = payload.getString("tenant");
+    String tenant = claims.getString("tenant");
     if (StringUtils.isNotBlank(tenant)) {
       return tenant;
     }
-    String iss = payload.getString("iss");
+    String iss = claims.getString("iss");
 
     if (StringUtils.isBlank(iss)) {
       return null;
@@ -822,51 +1166,62 @@ public class BLUsersAPI implements BlUsers {
     return substringAfterLast(iss, "/");
   }
 
+  /**
+   * @return claims of the token, decoded once and cached by {@link TokenClaims}
+   */
   private JsonObject parseTokenPayload(String token) {
-    String[] tokenParts = token.split("\\.");
-    if (tokenParts.length == 3) {
-      String encodedPayload = tokenParts[1];
-      byte[] decodedJsonBytes = Base64.getUrlDecoder().decode(encodedPayload);
-      String decodedJson = new String(decodedJsonBytes, StandardCharsets.UTF_8);
-      return new JsonObject(decodedJson);
-    } else {
-      return null;
-    }
+    return TokenClaims.getInstance().get(token);
   }
 
   @Override
   public void getBlUsersSelf(List<String> include, boolean expandPerms,
+          String permissionsFingerprint, String ifNoneMatch,
           Map<String, String> okapiHeaders,
-          Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler,
+          Handler<AsyncResult<javax.ws.rs.core.Response>> responseHandler,
           Context vertxContext) {
+    Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler =
+      conditionalSelfResponse(permissionsFingerprint, ifNoneMatch, responseHandler);
     String token = okapiHeaders.get(OKAPI_TOKEN_HEADER);
-    String username = getUsername(token);
-    String userId = getUserId(token);
+    if (token != null && SelfResponseCache.getInstance().isEnabled()) {
+      //the UI asks for _self right after login, serve the composite user the login has assembled
+      String json = SelfResponseCache.getInstance().get(SelfResponseCache.key(token,
+        include == null || include.isEmpty() ? getDefaultIncludes() : include, expandPerms));
+      if (json != null) {
+        asyncResultHandler.handle(Future.succeededFuture(jsonResponse(json)));
+        return;
+      }
+    }
+    JsonObject claims = parseTokenPayload(token);
+    String username = getUsername(claims);
+    String userId = getUserId(claims);
     if (StringUtils.isBlank(username) || username.startsWith(UNDEFINED_USER) || StringUtils.isBlank(userId)) {
-      run(null, username, expandPerms, include, okapiHeaders, asyncResultHandler);
+      run(null, username, expandPerms, include, permissionsFingerprint, okapiHeaders, asyncResultHandler);
     } else {
-      run(userId, null, expandPerms, include, okapiHeaders, asyncResultHandler);
+      run(userId, null, expandPerms, include, permissionsFingerprint, okapiHeaders, asyncResultHandler);
     }
   }
 
   @Override
-  public void postBlUsersLoginWithExpiry(boolean expandPerms, List<String> include, String userAgent, String xForwardedFor,
-      LoginCredentials entity, Map<String, String> okapiHeaders, Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler,
-      Context vertxContext) {
-    doPostBlUsersLogin(expandPerms, include, userAgent, xForwardedFor, entity, okapiHeaders, asyncResultHandler,
+  public void postBlUsersLoginWithExpiry(boolean expandPerms, List<String> include, String permissionsFingerprint,
+      String userAgent, String xForwardedFor, LoginCredentials entity, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler, Context vertxContext) {
+    doPostBlUsersLogin(expandPerms, include, permissionsFingerprint, userAgent, xForwardedFor, entity, okapiHeaders,
+        asyncResultHandler,
         LOGIN_ENDPOINT, this::loginResponse);
   }
 
   @Override
-  public void postBlUsersLogin(boolean expandPerms, List<String> include, String userAgent, String xForwardedFor,
-      LoginCredentials entity, Map<String, String> okapiHeaders, Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler,
-      Context vertxContext) {
-    doPostBlUsersLogin(expandPerms, include, userAgent, xForwardedFor, entity, okapiHeaders, asyncResultHandler,
+  public void postBlUsersLogin(boolean expandPerms, List<String> include, String permissionsFingerprint,
+      String userAgent, String xForwardedFor, LoginCredentials entity, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler, Context vertxContext) {
+    doPostBlUsersLogin(expandPerms, include, permissionsFingerprint, userAgent, xForwardedFor, entity, okapiHeaders,
+        asyncResultHandler,
         LOGIN_ENDPOINT_LEGACY, this::loginResponseLegacy);
   }
 
   @SuppressWarnings("java:S1874")
-  private void doPostBlUsersLogin(boolean expandPerms, List<String> include, String userAgent, String xForwardedFor, //NOSONAR
+  private void doPostBlUsersLogin(boolean expandPerms, List<String> include, String permissionsFingerprint, //NOSONAR
+      String userAgent, String xForwardedFor,
       LoginCredentials entity, Map<String, String> okapiHeaders, Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler,
       String loginEndpoint, BiFunction<Response, CompositeUser, javax.ws.rs.core.Response> respond) {
 
@@ -885,7 +1240,8 @@ public class BLUsersAPI implements BlUsers {
       asyncResultHandler.handle(Future.succeededFuture(
         PostBlUsersLoginResponse.respond400WithTextPlain("Improperly formatted request")));
     } else {
-      HttpClientInterface clientForLogin = HttpClientFactory.getHttpClient(okapiURL, okapiHeaders.get(OKAPI_TENANT_HEADER));
+      HttpClientPool.Lease loginLease = HttpClientPool.acquire(okapiURL, okapiHeaders.get(OKAPI_TENANT_HEADER));
+      HttpClientInterface clientForLogin = loginLease.getClient();
       String moduleURL = "/authn/login";
       logger.debug("Requesting login from {}", moduleURL);
       //can only be one user with this username - so only one result expected
@@ -908,34 +1264,178 @@ public class BLUsersAPI implements BlUsers {
             handleResponse(loginResponse, false, false, true, aRequestHasFailed, asyncResultHandler);
 
             String token = getToken(loginResponse.getHeaders());
-            String tenant = getTenant(token);
+            JsonObject claims = parseTokenPayload(token);
+            String tenant = getTenant(claims);
             okapiHeaders.put(OKAPI_TENANT_HEADER, tenant);
-            HttpClientInterface client = HttpClientFactory.getHttpClient(okapiURL, tenant);
+            String tokenUserId = getUserId(claims);
+            HttpClientPool.Lease lease = HttpClientPool.acquire(okapiURL, tenant);
 
             try {
-              getUserWithPerms(expandPerms, okapiHeaders, asyncResultHandler, userUrl, finalInclude, tenant, loginResponse, client, respond);
+              getUserWithPerms(expandPerms, okapiHeaders, asyncResultHandler, userUrl, finalInclude, tenant,
+                tokenUserId, loginResponse, lease, cacheForSelf(token, claims, finalInclude, expandPerms,
+                  (response, cu) -> {
+                    omitUnchangedPermissions(cu, permissionsFingerprint);
+                    return respond.apply(response, cu);
+                  }));
             } catch (Exception e) {
-              client.closeClient();
+              lease.release();
               asyncResultHandler.handle(Future.succeededFuture(
                 PostBlUsersLoginResponse.respond500WithTextPlain(e.getLocalizedMessage())));
             } finally {
-              clientForLogin.closeClient();
+              loginLease.release();
             }
           })
           .exceptionally(throwable -> {
-            clientForLogin.closeClient();
+            loginLease.release();
             asyncResultHandler.handle(Future.succeededFuture(
               PostBlUsersLoginResponse.respond500WithTextPlain(throwable.getLocalizedMessage())));
             return null;
           });
       } catch (Exception ex) {
-        clientForLogin.closeClient();
+        loginLease.release();
         asyncResultHandler.handle(Future.succeededFuture(
           PostBlUsersLoginResponse.respond500WithTextPlain(ex.getLocalizedMessage())));
       }
     }
   }
 
+  /**
+   * Put the composite user of the login into {@link SelfResponseCache} before responding, unless
+   * _self would assemble it differently. _self always reads mod-permissions, so logins with the
+   * Eureka permission source are not cached.
+   */
+  @SuppressWarnings("java:S1874")
+  private BiFunction<Response, CompositeUser, javax.ws.rs.core.Response> cacheForSelf(String token,
+      JsonObject claims, List<String> include, boolean expandPerms,
+      BiFunction<Response, CompositeUser, javax.ws.rs.core.Response> respond) {
+
+    if (token == null || !SelfResponseCache.getInstance().isEnabled()
+        || FeatureFlags.isEurekaLoginPermsEnabled()
+        || !SELF_CACHEABLE_INCLUDES.containsAll(include)
+        || (expandPerms && !include.contains(PERMISSIONS_INCLUDE))) {
+      return respond;
+    }
+    String key = SelfResponseCache.key(token, include, expandPerms);
+    long expiresAt = claims != null && claims.getValue("exp") instanceof Number exp
+      ? exp.longValue() * 1000 : Long.MAX_VALUE;
+    return (loginResponse, cu) -> {
+      try {
+        SelfResponseCache.getInstance().put(key, selfCompositeUser(cu, include), expiresAt);
+      } catch (JsonProcessingException e) {
+        logger.warn("cacheForSelf:: composite user not cached: {}", e.getMessage());
+      }
+      return respond.apply(loginResponse, cu);
+    };
+  }
+
+  /**
+   * @return the composite user that _self assembles for the same includes: without tenant and
+   * token expiration, and with only the permission names of the permission user
+   */
+  private static CompositeUser selfCompositeUser(CompositeUser cu, List<String> include) {
+    Permissions permissions = cu.getPermissions() == null || cu.getPermissions().getPermissions() == null
+      ? new Permissions()
+      : new Permissions().withPermissions(cu.getPermissions().getPermissions());
+    CompositeUser self = new CompositeUser()
+      .withUser(cu.getUser())
+      .withPatronGroup(cu.getPatronGroup())
+      .withPermissions(permissions)
+      .withServicePointsUser(cu.getServicePointsUser());
+    if (include.contains(PERMISSIONS_INCLUDE)) {
+      fingerprintPermissions(self, null);
+    }
+    return self;
+  }
+
+  /**
+   * Set the permissions fingerprint of the composite user, and drop its permission names if the
+   * client already has them.
+   *
+   * @param knownFingerprint - fingerprint of the permissions the client has, null for none
+   */
+  private static void fingerprintPermissions(CompositeUser cu, String knownFingerprint) {
+    List<Object> permissions = cu.getPermissions().getPermissions();
+    cu.setPermissionsFingerprint(permissions instanceof PermissionSets.PermissionList interned
+      ? interned.fingerprint() : Fingerprints.ofPermissions(permissions));
+    omitUnchangedPermissions(cu, knownFingerprint);
+  }
+
+  private static void omitUnchangedPermissions(CompositeUser cu, String knownFingerprint) {
+    if (knownFingerprint != null && cu.getPermissions() != null
+        && knownFingerprint.equals(cu.getPermissionsFingerprint())) {
+      cu.getPermissions().setPermissions(null);
+    }
+  }
+
+  private static String omitUnchangedPermissions(String compositeUserJson, String knownFingerprint) {
+    if (knownFingerprint == null) {
+      return compositeUserJson;
+    }
+    JsonObject cu = new JsonObject(compositeUserJson);
+    JsonObject permissions = cu.getJsonObject("permissions");
+    if (permissions == null || !knownFingerprint.equals(cu.getString("permissionsFingerprint"))) {
+      return compositeUserJson;
+    }
+    permissions.remove("permissions");
+    return cu.encode();
+  }
+
+  /**
+   * Serialize a 200 _self response with an ETag of its body, or answer 304 if the client
+   * already has that body. Composite users served from {@link SelfResponseCache} are already
+   * serialized and still contain all permission names.
+   *
+   * @param knownFingerprint - fingerprint of the permissions the client has, null for none
+   * @param ifNoneMatch - If-None-Match header, null for none
+   */
+  private static Handler<AsyncResult<javax.ws.rs.core.Response>> conditionalSelfResponse(
+      String knownFingerprint, String ifNoneMatch, Handler<AsyncResult<javax.ws.rs.core.Response>> handler) {
+
+    return result -> {
+      if (result.failed() || result.result().getStatus() != 200) {
+        handler.handle(result);
+        return;
+      }
+      try {
+        String json = result.result().getEntity() instanceof String cached
+          ? omitUnchangedPermissions(cached, knownFingerprint)
+          : ObjectMapperTool.getMapper().writeValueAsString(result.result().getEntity());
+        String etag = '"' + Fingerprints.of(json) + '"';
+        if (matchesEtag(ifNoneMatch, etag)) {
+          handler.handle(Future.succeededFuture(javax.ws.rs.core.Response.notModified()
+            .header(HttpHeaders.ETAG, etag)
+            .build()));
+          return;
+        }
+        handler.handle(Future.succeededFuture(javax.ws.rs.core.Response.status(200)
+          .type(MediaType.APPLICATION_JSON)
+          .header(HttpHeaders.ETAG, etag)
+          .entity(json)
+          .build()));
+      } catch (Exception e) {
+        logger.error(e.getMessage(), e);
+        handler.handle(Future.succeededFuture(
+          GetBlUsersSelfResponse.respond500WithTextPlain(e.getLocalizedMessage())));
+      }
+    };
+  }
+
+  /**
+   * @return whether the If-None-Match header lists the entity tag, weak comparison
+   */
+  private static boolean matchesEtag(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String tag : ifNoneMatch.split(",")) {
+      tag = tag.strip();
+      if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private String getToken(MultiMap headers) {
     // There is a legacy token mode and a non-legacy mode. The non-legacy mode gets the token from a Set-Cookie header.
     // The legacy mode gets it from the X-Okapi-Token header.
@@ -949,240 +1449,223 @@ public class BLUsersAPI implements BlUsers {
     return headers.get(OKAPI_TOKEN_HEADER);
   }
 
-  @SuppressWarnings({"java:S107", "java:S3776", "java:S1874", "java:S2142"})
-  private void getUserWithPerms(boolean expandPerms,
-    Map<String, String> okapiHeaders, Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler,
-    String userUrl, List<String> include, String tenant, org.folio.rest.tools.client.Response loginResponse,
-    HttpClientInterface client,
-    BiFunction<org.folio.rest.tools.client.Response, CompositeUser, javax.ws.rs.core.Response> respond)
-    throws Exception {
+  /**
+   * Permissions of the logging in user. The login pipeline sends, validates and assembles
+   * everything else the same way for every source.
+   */
+  @SuppressWarnings("java:S1874")
+  private interface PermissionSource {
+
+    /**
+     * @return name of the source for logging
+     */
+    String name();
+
+    /**
+     * @param memo - de-duplication of the login's upstream requests
+     * @param userResponse - response of the /users?query=username==... lookup
+     * @param tokenUserId - user id of the access token, null if unknown
+     * @param check - validation of the user response
+     * @return response with the permissions of the user
+     */
+    CompletableFuture<Response> permissions(UpstreamRequestMemo memo, CompletableFuture<Response> userResponse,
+        String tokenUserId, HttpClientPool.Lease lease, Map<String, String> okapiHeaders,
+        Consumer<Response> check) throws Exception;
+
+    /**
+     * @return response with the expanded permission names, or null if {@link #fill} expands the
+     * permissions of the permissions response itself
+     */
+    CompletableFuture<Response> expandedPermissions(UpstreamRequestMemo memo,
+        CompletableFuture<Response> userResponse, String tokenUserId, HttpClientPool.Lease lease,
+        Map<String, String> okapiHeaders, boolean[] aRequestHasFailed,
+        Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler) throws Exception;
+
+    /**
+     * Set the permissions of the composite user.
+     *
+     * @param permissions - permissions response, null if permissions are not included
+     * @param expanded - expanded permissions response, null if not requested
+     */
+    void fill(CompositeUser cu, Response permissions, Response expanded, boolean expandPerms);
+  }
 
-    if (FeatureFlags.isEurekaLoginPermsEnabled()) {
-      getUserWithPermsEureka(expandPerms, okapiHeaders, asyncResultHandler,
-        userUrl, include, tenant, loginResponse, client, respond);
-    } else {
-      getUserWithPermsLegacy(expandPerms, okapiHeaders, asyncResultHandler,
-        userUrl, include, tenant, loginResponse, client, respond);
+  /**
+   * Permission users and expanded permissions of mod-permissions.
+   */
+  @SuppressWarnings("java:S1874")
+  private class LegacyPermissionSource implements PermissionSource {
+
+    @Override
+    public String name() {
+      return "mod-permissions";
     }
-  }
 
-  @SuppressWarnings({"java:S107", "java:S3776", "java:S1874", "java:S2142"})
-  private void getUserWithPermsLegacy(boolean expandPerms,
-    Map<String, String> okapiHeaders,
-    Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler,
-    String userUrl,
-    List<String> include,
-    String tenant,
-    org.folio.rest.tools.client.Response loginResponse,
-    HttpClientInterface client,
-    BiFunction<org.folio.rest.tools.client.Response, CompositeUser, javax.ws.rs.core.Response> respond)
-    throws Exception {
+    @Override
+    public CompletableFuture<Response> permissions(UpstreamRequestMemo memo, CompletableFuture<Response> userResponse,
+        String tokenUserId, HttpClientPool.Lease lease, Map<String, String> okapiHeaders,
+        Consumer<Response> check) throws Exception {
 
-    CompletableFuture<org.folio.rest.tools.client.Response> userResponse[] = new CompletableFuture[1];
-    boolean[] aRequestHasFailed = new boolean[] {false};
-    ArrayList<CompletableFuture<org.folio.rest.tools.client.Response>> requestedIncludes
-      = new ArrayList<>();
-    Map<String, CompletableFuture<org.folio.rest.tools.client.Response>> completedLookup
-      = new HashMap<>();
+      return requestForLoginUser(memo, userResponse, tokenUserId,
+        () -> permissionLookup(lease, memo, "/perms/users?query=userId==" + tokenUserId, okapiHeaders),
+        check, "/perms/users", "users[*].id", okapiHeaders);
+    }
 
-    userResponse[0] = client.request(HttpMethod.GET, userUrl, okapiHeaders);
+    @Override
+    public CompletableFuture<Response> expandedPermissions(UpstreamRequestMemo memo,
+        CompletableFuture<Response> userResponse, String tokenUserId, HttpClientPool.Lease lease,
+        Map<String, String> okapiHeaders, boolean[] aRequestHasFailed,
+        Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler) throws Exception {
 
-    for (int i = 0; i < include.size(); i++) {
+      CompletableFuture<Response> permUserResponse = permissions(memo, userResponse, tokenUserId, lease,
+        okapiHeaders, handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler));
+      return expandedPermissionLookup(permUserResponse, lease, okapiHeaders,
+        handlePreviousResponse(true, false, true, aRequestHasFailed, asyncResultHandler));
+    }
 
-      if (include.get(i).equals(PERMISSIONS_INCLUDE)) {
-        //call perms once the /users?query=username={username} (same as creds) completes
-        CompletableFuture<org.folio.rest.tools.client.Response> permResponse = userResponse[0].thenCompose(
-          client.chainedRequest("/perms/users", okapiHeaders, new BuildCQL(null, "users[*].id", "userId"),
-            handlePreviousResponse(false, false, false, aRequestHasFailed, asyncResultHandler)));
-        requestedIncludes.add(permResponse);
-        completedLookup.put(PERMISSIONS_INCLUDE, permResponse);
-      } else if (include.get(i).equals(GROUPS_INCLUDE)) {
-        CompletableFuture<org.folio.rest.tools.client.Response> groupResponse = userResponse[0].thenCompose(
-          client.chainedRequest("/groups/{users[0].patronGroup}", okapiHeaders, null,
-            handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler)));
-        requestedIncludes.add(groupResponse);
-        completedLookup.put(GROUPS_INCLUDE, groupResponse);
-      } else if (include.get(i).equals(SERVICEPOINTS_INCLUDE)) {
-        CompletableFuture<org.folio.rest.tools.client.Response> servicePointsResponse = userResponse[0].thenCompose(
-          client.chainedRequest("/service-points-users?query=userId=={users[0].id}" + QUERY_LIMIT,
-            okapiHeaders, null, handlePreviousResponse(false, false, false,
-              aRequestHasFailed, asyncResultHandler))
-        );
-        requestedIncludes.add(servicePointsResponse);
-        completedLookup.put(SERVICEPOINTS_INCLUDE, servicePointsResponse);
-        try { //NOSONAR
-          CompletableFuture<org.folio.rest.tools.client.Response> expandSPUResponse = expandServicePoints(
-            servicePointsResponse, client, aRequestHasFailed, okapiHeaders,
-            asyncResultHandler);
-          completedLookup.put(EXPANDED_SERVICEPOINTS_INCLUDE, expandSPUResponse);
-          requestedIncludes.add(expandSPUResponse);
-        } catch (Exception ex) {
-          client.closeClient();
-          asyncResultHandler.handle(Future.succeededFuture(
-            PostBlUsersLoginResponse.respond500WithTextPlain(ex.getLocalizedMessage())));
-        }
+    @Override
+    public void fill(CompositeUser cu, Response permissions, Response expanded, boolean expandPerms) {
+      if (expanded != null && expanded.getBody() != null) {
+        cu.setPermissions(new Permissions().withPermissions(PermissionSets.getInstance().intern(cu.getTenant(),
+          expandedPermissions(expanded.getBody().getJsonArray("permissionNames")))));
+      }
+      if (permissions == null) {
+        return;
+      }
+      JsonArray permissionUsers = permissions.getBody().getJsonArray("permissionUsers");
+      if (permissionUsers == null || permissionUsers.isEmpty()) {
+        return;
+      }
+      Permissions p = cu.getPermissions();
+      if (p != null) {
+        //expanded permissions requested and the array of permissions has been populated
+        //add the username
+        p.setUserId(permissionUsers.getJsonObject(0).getString("id"));
+      } else {
+        //data coming in from the service isnt returned as required by the composite user schema
+        p = (Permissions) Response.convertToPojo(permissionUsers.getJsonObject(0), Permissions.class);
+        cu.setPermissions(p.withPermissions(PermissionSets.getInstance().intern(cu.getTenant(), p.getPermissions())));
       }
     }
+  }
 
-    if (expandPerms) {
-      CompletableFuture<org.folio.rest.tools.client.Response> permUserResponse = userResponse[0].thenCompose(
-        client.chainedRequest("/perms/users", okapiHeaders, new BuildCQL(null, "users[*].id", "userId"),
-          handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler))
-      );
-      CompletableFuture<org.folio.rest.tools.client.Response> expandPermsResponse = permUserResponse.thenCompose(
-        client.chainedRequest("/perms/users/{permissionUsers[0].id}/permissions?expanded=true&full=true", okapiHeaders,
-          true, null,
-          handlePreviousResponse(true, false, true, aRequestHasFailed, asyncResultHandler)));
-      requestedIncludes.add(expandPermsResponse);
-      completedLookup.put(EXPANDED_PERMISSIONS_INCLUDE, expandPermsResponse);
+  /**
+   * Permissions of the Eureka {@code /permissions/users} endpoint; they are expanded already.
+   */
+  @SuppressWarnings("java:S1874")
+  private class EurekaPermissionSource implements PermissionSource {
+
+    @Override
+    public String name() {
+      return "permissions-users";
     }
-    requestedIncludes.add(userResponse[0]);
 
-    CompletableFuture.allOf(requestedIncludes.toArray(new CompletableFuture[requestedIncludes.size()]))
-      .thenAccept((response) -> {
-        try {
-          if (requestedIncludes.size() == 1) {
-            //no includes requested, so users response was not validated, so validate
-            handleResponse(userResponse[0].get(), true, false, true, aRequestHasFailed, asyncResultHandler);
-          }
-          if (aRequestHasFailed[0]) {
-            return;
-          }
-          //all requested endpoints have completed, proces....
-          CompositeUser cu = new CompositeUser().withTenant(tenant);
-          //user errors handled in chainedRequest, so assume user is ok at this point
-          cu.setUser((User) org.folio.rest.tools.client.Response.convertToPojo(
-            userResponse[0].get().getBody().getJsonArray("users").getJsonObject(0), User.class));
+    @Override
+    public CompletableFuture<Response> permissions(UpstreamRequestMemo memo, CompletableFuture<Response> userResponse,
+        String tokenUserId, HttpClientPool.Lease lease, Map<String, String> okapiHeaders,
+        Consumer<Response> check) throws Exception {
 
-          CompletableFuture<org.folio.rest.tools.client.Response> cf = completedLookup.get(GROUPS_INCLUDE);
-          if (cf != null) {
-            org.folio.rest.tools.client.Response groupResponse = cf.get();
-            handleResponse(groupResponse, false, true, false, aRequestHasFailed, asyncResultHandler);
-            if (!aRequestHasFailed[0] && groupResponse.getBody() != null) {
-              cu.setPatronGroup(
-                (PatronGroup) org.folio.rest.tools.client.Response.convertToPojo(groupResponse.getBody(),
-                  PatronGroup.class));
-            }
-          }
-          cf = completedLookup.get(EXPANDED_PERMISSIONS_INCLUDE);
-          if (cf != null) {
-            org.folio.rest.tools.client.Response permsResponse = cf.get();
-            handleResponse(permsResponse, false, true, false, aRequestHasFailed, asyncResultHandler);
-            if (!aRequestHasFailed[0] && permsResponse.getBody() != null) {
-              //data coming in from the service isnt returned as required by the composite user schema
-              JsonObject j = new JsonObject();
-              j.put("permissions", permsResponse.getBody().getJsonArray("permissionNames"));
-              cu.setPermissions((Permissions) org.folio.rest.tools.client.Response.convertToPojo(j, Permissions.class));
-            }
-          }
-          cf = completedLookup.get(PERMISSIONS_INCLUDE);
-          if (cf != null && cf.get().getBody() != null) {
-            org.folio.rest.tools.client.Response permsResponse = cf.get();
-            handleResponse(permsResponse, false, false, false, aRequestHasFailed, asyncResultHandler);
-            if (!aRequestHasFailed[0]) {
-              Permissions p = cu.getPermissions();
-              JsonArray permissionUsers = permsResponse.getBody().getJsonArray("permissionUsers");
-              if (permissionUsers != null && !permissionUsers.isEmpty()) {
-                if (p != null) {
-                  //expanded permissions requested and the array of permissions has been populated
-                  //add the username
-                  p.setUserId(permissionUsers.getJsonObject(0).getString("id"));
-                } else {
-                  //data coming in from the service isnt returned as required by the composite user schema
-                  JsonObject j = permissionUsers.getJsonObject(0);
-                  cu.setPermissions(
-                    (Permissions) org.folio.rest.tools.client.Response.convertToPojo(j, Permissions.class));
-                }
-              }
-            }
-          }
+      return requestForLoginUser(memo, userResponse, tokenUserId,
+        () -> permissionLookup(lease, memo, "/permissions/users/" + tokenUserId, okapiHeaders),
+        check, "/permissions/users/{users[0].id}", null, okapiHeaders);
+    }
 
-          //TODO: Refactor so less copy/paste
+    @Override
+    public CompletableFuture<Response> expandedPermissions(UpstreamRequestMemo memo,
+        CompletableFuture<Response> userResponse, String tokenUserId, HttpClientPool.Lease lease,
+        Map<String, String> okapiHeaders, boolean[] aRequestHasFailed,
+        Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler) {
+      return null;
+    }
 
-          fillCompositeUserWithServicePoint(completedLookup, cu);
+    @Override
+    public void fill(CompositeUser cu, Response permissions, Response expanded, boolean expandPerms) {
+      if (permissions == null) {
+        return;
+      }
+      JsonArray permissionNames = permissions.getBody().getJsonArray("permissions");
+      if (permissionNames != null && !permissionNames.isEmpty()) {
+        //staff users share a few role-derived permission sets, keep one copy of each
+        var userPermissions = PermissionSets.getInstance().intern(cu.getTenant(), expandPerms
+          ? expandedPermissionNames(permissionNames)
+          : permissionNames.getList());
+        cu.setPermissions(new Permissions().withPermissions(userPermissions)
+          .withUserId(permissions.getBody().getString("userId")));
+      }
+    }
+  }
 
-          if (!aRequestHasFailed[0]) {
-            var r = respond.apply(loginResponse, cu);
-            asyncResultHandler.handle(Future.succeededFuture(r));
-          }
-        } catch (Exception e) {
-          if (!aRequestHasFailed[0]) {
-            asyncResultHandler.handle(Future.succeededFuture(
-              PostBlUsersLoginResponse.respond500WithTextPlain(e.getLocalizedMessage())));
-          }
-          logger.error(e.getMessage(), e);
-        } finally {
-          client.closeClient();
-        }
-      });
+  private PermissionSource permissionSource() {
+    return FeatureFlags.isEurekaLoginPermsEnabled() ? new EurekaPermissionSource() : new LegacyPermissionSource();
   }
 
   @SuppressWarnings({"java:S107", "java:S3776", "java:S1874", "java:S2142"})
-  private void getUserWithPermsEureka(boolean expandPerms,
-    Map<String, String> okapiHeaders,
-    Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler,
-    String userUrl,
-    List<String> include,
-    String tenant,
-    org.folio.rest.tools.client.Response loginResponse,
-    HttpClientInterface client,
+  private void getUserWithPerms(boolean expandPerms,
+    Map<String, String> okapiHeaders, Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler,
+    String userUrl, List<String> include, String tenant, String tokenUserId,
+    org.folio.rest.tools.client.Response loginResponse, HttpClientPool.Lease lease,
     BiFunction<org.folio.rest.tools.client.Response, CompositeUser, javax.ws.rs.core.Response> respond)
     throws Exception {
 
-    CompletableFuture<org.folio.rest.tools.client.Response> userResponse[] = new CompletableFuture[1];
+    long start = System.nanoTime();
+    PermissionSource permissionSource = permissionSource();
+    //the access token already names the user, so the id-keyed requests can be sent without
+    //waiting for the /users lookup; ids that are not UUIDs are never put into a query unchecked
+    String speculativeUserId = tokenUserId != null && UUID_PATTERN.matcher(tokenUserId).matches()
+      ? tokenUserId : null;
+    HttpClientInterface client = lease.getClient();
+    UpstreamRequestMemo memo = new UpstreamRequestMemo(client);
+    CompletableFuture<Response> userResponse = client.request(HttpMethod.GET, userUrl, okapiHeaders);
     boolean[] aRequestHasFailed = new boolean[] {false};
-    ArrayList<CompletableFuture<org.folio.rest.tools.client.Response>> requestedIncludes
-      = new ArrayList<>();
-    Map<String, CompletableFuture<org.folio.rest.tools.client.Response>> completedLookup
-      = new HashMap<>();
-
-    userResponse[0] = client.request(HttpMethod.GET, userUrl, okapiHeaders);
-
-    for (int i = 0; i < include.size(); i++) {
+    List<CompletableFuture<Response>> requestedIncludes = new ArrayList<>();
+    Map<String, CompletableFuture<Response>> completedLookup = new HashMap<>();
 
-      if (include.get(i).equals(PERMISSIONS_INCLUDE)) {
+    for (String name : include) {
+      if (name.equals(PERMISSIONS_INCLUDE)) {
         //call perms once the /users?query=username={username} (same as creds) completes
-        CompletableFuture<org.folio.rest.tools.client.Response> permResponse = userResponse[0].thenCompose(
-          client.chainedRequest("/permissions/users/{users[0].id}", okapiHeaders, null,
-            handlePreviousResponse(false, false, false, aRequestHasFailed, asyncResultHandler)));
+        CompletableFuture<Response> permResponse = permissionSource.permissions(memo, userResponse,
+          speculativeUserId, lease, okapiHeaders,
+          handlePreviousResponse(false, false, false, aRequestHasFailed, asyncResultHandler));
         requestedIncludes.add(permResponse);
         completedLookup.put(PERMISSIONS_INCLUDE, permResponse);
-      } else if (include.get(i).equals(GROUPS_INCLUDE)) {
-        CompletableFuture<org.folio.rest.tools.client.Response> groupResponse = userResponse[0].thenCompose(
-          client.chainedRequest("/groups/{users[0].patronGroup}", okapiHeaders, null,
-            handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler)));
+      } else if (name.equals(GROUPS_INCLUDE)) {
+        CompletableFuture<Response> groupResponse = lookupGroup(userResponse,
+          "{users[0].patronGroup}", lease, okapiHeaders,
+          handlePreviousResponse(false, true, true, aRequestHasFailed, asyncResultHandler));
         requestedIncludes.add(groupResponse);
         completedLookup.put(GROUPS_INCLUDE, groupResponse);
-      } else if (include.get(i).equals(SERVICEPOINTS_INCLUDE)) {
-        CompletableFuture<org.folio.rest.tools.client.Response> servicePointsResponse = userResponse[0].thenCompose(
-          client.chainedRequest("/service-points-users?query=userId=={users[0].id}" + QUERY_LIMIT,
-            okapiHeaders, null, handlePreviousResponse(false, false, false,
-              aRequestHasFailed, asyncResultHandler))
-        );
+      } else if (name.equals(SERVICEPOINTS_INCLUDE)) {
+        Consumer<Response> check =
+          handlePreviousResponse(false, false, false, aRequestHasFailed, asyncResultHandler);
+        CompletableFuture<Response> servicePointsResponse = requestForLoginUser(memo,
+          userResponse, speculativeUserId,
+          () -> memo.get("/service-points-users?query=userId==" + speculativeUserId + QUERY_LIMIT, okapiHeaders),
+          check, "/service-points-users?query=userId=={users[0].id}" + QUERY_LIMIT, null, okapiHeaders);
         requestedIncludes.add(servicePointsResponse);
         completedLookup.put(SERVICEPOINTS_INCLUDE, servicePointsResponse);
-        try { //NOSONAR
-          CompletableFuture<org.folio.rest.tools.client.Response> expandSPUResponse = expandServicePoints(
-            servicePointsResponse, client, aRequestHasFailed, okapiHeaders,
-            asyncResultHandler);
-          completedLookup.put(EXPANDED_SERVICEPOINTS_INCLUDE, expandSPUResponse);
-          requestedIncludes.add(expandSPUResponse);
-        } catch (Exception ex) {
-          client.closeClient();
-          asyncResultHandler.handle(Future.succeededFuture(
-            PostBlUsersLoginResponse.respond500WithTextPlain(ex.getLocalizedMessage())));
-        }
+        CompletableFuture<Response> expandSPUResponse = expandServicePoints(
+          servicePointsResponse, lease, aRequestHasFailed, okapiHeaders, asyncResultHandler);
+        completedLookup.put(EXPANDED_SERVICEPOINTS_INCLUDE, expandSPUResponse);
+        requestedIncludes.add(expandSPUResponse);
       }
     }
 
-    requestedIncludes.add(userResponse[0]);
+    if (expandPerms) {
+      CompletableFuture<Response> expandPermsResponse = permissionSource.expandedPermissions(memo, userResponse,
+        speculativeUserId, lease, okapiHeaders, aRequestHasFailed, asyncResultHandler);
+      if (expandPermsResponse != null) {
+        requestedIncludes.add(expandPermsResponse);
+        completedLookup.put(EXPANDED_PERMISSIONS_INCLUDE, expandPermsResponse);
+      }
+    }
+    requestedIncludes.add(userResponse);
 
     CompletableFuture.allOf(requestedIncludes.toArray(new CompletableFuture[requestedIncludes.size()]))
       .thenAccept((response) -> {
         try {
           if (requestedIncludes.size() == 1) {
             //no includes requested, so users response was not validated, so validate
-            handleResponse(userResponse[0].get(), true, false, true, aRequestHasFailed, asyncResultHandler);
+            handleResponse(userResponse.get(), true, false, true, aRequestHasFailed, asyncResultHandler);
           }
           if (aRequestHasFailed[0]) {
             return;
@@ -1190,37 +1673,36 @@ public class BLUsersAPI implements BlUsers {
           //all requested endpoints have completed, proces....
           CompositeUser cu = new CompositeUser().withTenant(tenant);
           //user errors handled in chainedRequest, so assume user is ok at this point
-          cu.setUser((User) org.folio.rest.tools.client.Response.convertToPojo(
-            userResponse[0].get().getBody().getJsonArray("users").getJsonObject(0), User.class));
+          cu.setUser((User) Response.convertToPojo(
+            userResponse.get().getBody().getJsonArray("users").getJsonObject(0), User.class));
 
-          CompletableFuture<org.folio.rest.tools.client.Response> cf = completedLookup.get(GROUPS_INCLUDE);
+          CompletableFuture<Response> cf = completedLookup.get(GROUPS_INCLUDE);
           if (cf != null) {
-            org.folio.rest.tools.client.Response groupResponse = cf.get();
+            Response groupResponse = cf.get();
             handleResponse(groupResponse, false, true, false, aRequestHasFailed, asyncResultHandler);
             if (!aRequestHasFailed[0] && groupResponse.getBody() != null) {
-              cu.setPatronGroup(
-                (PatronGroup) org.folio.rest.tools.client.Response.convertToPojo(groupResponse.getBody(),
-                  PatronGroup.class));
+              cu.setPatronGroup((PatronGroup) Response.convertToPojo(groupResponse.getBody(), PatronGroup.class));
             }
           }
-
+          Response expanded = null;
+          cf = completedLookup.get(EXPANDED_PERMISSIONS_INCLUDE);
+          if (cf != null) {
+            expanded = cf.get();
+            handleResponse(expanded, false, true, false, aRequestHasFailed, asyncResultHandler);
+          }
+          Response permissions = null;
           cf = completedLookup.get(PERMISSIONS_INCLUDE);
           if (cf != null && cf.get().getBody() != null) {
-            org.folio.rest.tools.client.Response permsResponse = cf.get();
-            handleResponse(permsResponse, false, false, false, aRequestHasFailed, asyncResultHandler);
-            if (!aRequestHasFailed[0]) {
-              JsonArray permissionUsers = permsResponse.getBody().getJsonArray("permissions");
-              var userId = permsResponse.getBody().getString("userId");
-              if (permissionUsers != null && !permissionUsers.isEmpty()) {
-                var userPermissions = permissionUsers.stream()
-                  .map(permissionName -> expandPerms ? Map.of("permissionName", permissionName) : permissionName)
-                  .toList();
-                cu.setPermissions(new Permissions().withPermissions(userPermissions).withUserId(userId));
-              }
-            }
+            permissions = cf.get();
+            handleResponse(permissions, false, false, false, aRequestHasFailed, asyncResultHandler);
+          }
+          if (aRequestHasFailed[0]) {
+            return;
+          }
+          permissionSource.fill(cu, permissions, expanded, expandPerms);
+          if (cu.getPermissions() != null) {
+            fingerprintPermissions(cu, null);
           }
-
-          //TODO: Refactor so less copy/paste
 
           fillCompositeUserWithServicePoint(completedLookup, cu);
 
@@ -1235,11 +1717,105 @@ public class BLUsersAPI implements BlUsers {
           }
           logger.error(e.getMessage(), e);
         } finally {
-          client.closeClient();
+          memo.logSaved("login");
+          logger.debug("getUserWithPerms:: login of tenant {} with {} permissions assembled in {} ms",
+            tenant, permissionSource.name(), (System.nanoTime() - start) / 1_000_000);
+          lease.release();
         }
       });
   }
 
+  /**
+   * Send a request for the logging in user. If the access token named the user, the request is
+   * sent right away and its response is used once the /users lookup confirms that the token's
+   * user id is the id of the user found by username; otherwise, or if the ids differ, the
+   * chained request is sent after the /users lookup as before. Identical requests of the same
+   * login are only sent once.
+   *
+   * @param memo - de-duplication of the login's upstream requests
+   * @param userResponse - response of the /users?query=username==... lookup
+   * @param tokenUserId - user id of the access token, null if unknown
+   * @param request - sends the request for the token's user id
+   * @param check - validation of the user response
+   * @param template - url template of the request chained onto the user response
+   * @param cqlPath - path of the user ids for a userId CQL query, null for none
+   */
+  @SuppressWarnings({"java:S107", "java:S1874"})
+  private CompletableFuture<Response> requestForLoginUser(UpstreamRequestMemo memo,
+      CompletableFuture<Response> userResponse, String tokenUserId,
+      Callable<CompletableFuture<Response>> request, Consumer<Response> check,
+      String template, String cqlPath, Map<String, String> okapiHeaders) throws Exception {
+
+    if (tokenUserId == null) {
+      return memo.chained(userResponse, template, okapiHeaders, cqlPath, "userId", check);
+    }
+    CompletableFuture<Response> speculative = request.call();
+    return userResponse.thenCompose(user -> {
+      String userId = singleUserId(user);
+      if (tokenUserId.equals(userId)) {
+        check.accept(user);
+        return speculative;
+      }
+      //a failed or empty lookup is reported by the check of the chained request
+      if (userId != null) {
+        logger.warn("requestForLoginUser:: user lookup doesn't match token user id {}, "
+          + "discarding speculative response for {}", tokenUserId, template);
+      }
+      return memo.chained(userResponse, template, okapiHeaders, cqlPath, "userId", check);
+    });
+  }
+
+  /**
+   * @return id of the user if the lookup succeeded with exactly one user, null otherwise
+   */
+  private static String singleUserId(Response userResponse) {
+    if (userResponse == null || userResponse.getError() != null || userResponse.getBody() == null) {
+      return null;
+    }
+    JsonArray users = userResponse.getBody().getJsonArray("users");
+    if (users == null || users.size() != 1) {
+      return null;
+    }
+    return users.getJsonObject(0).getString("id");
+  }
+
+  /**
+   * Expanded permissions of /perms/users/{id}/permissions as returned by mod-permissions, the
+   * full definitions by default. With {@code EXPANDED_PERMISSIONS_NAMES_ONLY} they are requested
+   * without {@code full=true} and each name is returned as a {@code {"permissionName": ...}} entry.
+   *
+   * @param permissionNames - the permissionNames of the response
+   * @return expanded permissions for the composite user
+   */
+  @SuppressWarnings("java:S1874")
+  private static List<Object> expandedPermissions(JsonArray permissionNames) {
+    if (!EXPANDED_PERMISSIONS_NAMES_ONLY) {
+      //data coming in from the service isnt returned as required by the composite user schema
+      JsonObject j = new JsonObject();
+      j.put("permissions", permissionNames);
+      return ((Permissions) Response.convertToPojo(j, Permissions.class)).getPermissions();
+    }
+    return expandedPermissionNames(permissionNames);
+  }
+
+  /**
+   * @param permissionNames - permission names, full definitions are reduced to their name
+   * @return a {@code {"permissionName": ...}} entry per name
+   */
+  private static List<Object> expandedPermissionNames(JsonArray permissionNames) {
+    List<Object> permissions = new ArrayList<>();
+    if (permissionNames == null) {
+      return permissions;
+    }
+    for (Object permission : permissionNames) {
+      Object name = permission instanceof JsonObject json ? json.getString("permissionName") : permission;
+      if (name != null) {
+        permissions.add(Map.of("permissionName", name));
+      }
+    }
+    return permissions;
+  }
+
   private static void fillCompositeUserWithServicePoint(Map<String, CompletableFuture<Response>> completedLookup, CompositeUser cu) throws Exception {
     CompletableFuture<Response> cf;
     cf = completedLookup.get(SERVICEPOINTS_INCLUDE);
@@ -1302,8 +1878,84 @@ public class BLUsersAPI implements BlUsers {
     return responseBuilder.build();
   }
 
+  /**
+   * Permission lookup of a known user, served from {@link PermissionCache} when enabled.
+   */
+  @SuppressWarnings("java:S1874")
+  private CompletableFuture<Response> permissionLookup(HttpClientPool.Lease lease, String url,
+      Map<String, String> okapiHeaders) throws Exception {
+    return PermissionCache.getInstance().get(lease.getOkapiUrl(), lease.getTenant(), url,
+      () -> lease.getClient().request(url, okapiHeaders));
+  }
+
+  /**
+   * Permission lookup of the logging in user, served from {@link PermissionCache} when enabled;
+   * identical lookups of the same login are only sent once.
+   */
+  @SuppressWarnings("java:S1874")
+  private CompletableFuture<Response> permissionLookup(HttpClientPool.Lease lease, UpstreamRequestMemo memo,
+      String url, Map<String, String> okapiHeaders) throws Exception {
+    return PermissionCache.getInstance().get(lease.getOkapiUrl(), lease.getTenant(), url,
+      () -> memo.get(url, okapiHeaders));
+  }
+
+  /**
+   * Expanded permissions of the first permission user of the response, served from
+   * {@link PermissionCache} when enabled.
+   *
+   * @param permUserResponse - response of a /perms/users query
+   * @param check - validation of the permission user response
+   */
+  @SuppressWarnings("java:S1874")
+  private CompletableFuture<Response> expandedPermissionLookup(CompletableFuture<Response> permUserResponse,
+      HttpClientPool.Lease lease, Map<String, String> okapiHeaders, Consumer<Response> check) {
+
+    return permUserResponse.thenCompose(permUser -> {
+      Function<Response, CompletableFuture<Response>> chained = lease.getClient().chainedRequest(
+        "/perms/users/{permissionUsers[0].id}/permissions" + EXPANDED_PERMISSIONS_QUERY, okapiHeaders, true, null, check);
+      String permUserId = null;
+      if (isSuccessWithoutError(permUser)) {
+        JsonArray permissionUsers = permUser.getBody().getJsonArray("permissionUsers");
+        if (permissionUsers != null && !permissionUsers.isEmpty()) {
+          permUserId = permissionUsers.getJsonObject(0).getString("id");
+        }
+      }
+      if (permUserId == null || !PermissionCache.getInstance().isEnabled()) {
+        return chained.apply(permUser);
+      }
+      //a cache hit doesn't send the chained request, so validate here as well; the check has
+      //no effect when it runs again for a miss
+      check.accept(permUser);
+      try {
+        return PermissionCache.getInstance().get(lease.getOkapiUrl(), lease.getTenant(),
+          "/perms/users/" + permUserId + "/permissions" + EXPANDED_PERMISSIONS_QUERY, () -> chained.apply(permUser));
+      } catch (Exception e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    });
+  }
+
+  /**
+   * Send an include request that is keyed by the user id right away, in parallel with the user
+   * lookup. The returned future completes once both responses are in; the user response is
+   * validated first, and if it failed the include response is marked as failed so that requests
+   * chained onto it are not sent.
+   */
+  @SuppressWarnings("java:S1874")
+  private CompletableFuture<Response> parallelInclude(CompletableFuture<Response> userResponse,
+      CompletableFuture<Response> includeResponse, boolean[] aRequestHasFailed,
+      Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler) {
+    return userResponse.thenCombine(includeResponse, (user, included) -> {
+      handlePreviousResponse(true, false, true, aRequestHasFailed, asyncResultHandler).accept(user);
+      if (aRequestHasFailed[0] && included.getError() == null) {
+        included.setError(new JsonObject());
+      }
+      return included;
+    });
+  }
+
   private CompletableFuture<Response> expandServicePoints(
-      CompletableFuture<Response> spuResponseFuture, HttpClientInterface client,
+      CompletableFuture<Response> spuResponseFuture, HttpClientPool.Lease lease,
       boolean[] aRequestHasFailed, Map<String, String> okapiHeaders,
       Handler<AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler)
       throws InterruptedException, ExecutionException {
@@ -1312,6 +1964,7 @@ public class BLUsersAPI implements BlUsers {
     }
     return spuResponseFuture.thenCompose( response -> {
       List<String> servicePointIdQueryList = new ArrayList<>();
+      Set<String> servicePointIds = new LinkedHashSet<>();
 
       JsonObject servicePointsUserListObjectJson = response.getBody();
       if(servicePointsUserListObjectJson == null ) {
@@ -1331,6 +1984,7 @@ public class BLUsersAPI implements BlUsers {
         String defaultSPId = servicePointsUserJson.getString("defaultServicePointId");
         if(defaultSPId != null) {
           servicePointIdQueryList.add(String.format("id==\"%s\"", defaultSPId));
+          servicePointIds.add(defaultSPId);
         }
       }
       if(servicePointsUserJson.containsKey("servicePointsIds")) {
@@ -1338,22 +1992,143 @@ public class BLUsersAPI implements BlUsers {
         if(SPIdArray != null) {
           for(Object ob : SPIdArray) {
             servicePointIdQueryList.add(String.format("id==\"%s\"", (String)ob));
+            servicePointIds.add((String)ob);
           }
         }
       }
       if(servicePointIdQueryList.isEmpty()) {
         return CompletableFuture.completedFuture(null);
       }
+      Consumer<Response> check = handlePreviousResponse(false, false, false,
+          aRequestHasFailed, asyncResultHandler);
+      List<JsonObject> cached = ReferenceDataCache.getServicePoints(lease.getOkapiUrl(), lease.getTenant(),
+          servicePointIds);
+      if(cached != null) {
+        check.accept(response);
+        return CompletableFuture.completedFuture(collectionResponse("servicepoints", cached));
+      }
       String idQuery = StringUtil.urlEncode(String.join(" or ", servicePointIdQueryList));
       CompletableFuture<Response> expandSPUResponse = spuResponseFuture
-          .thenCompose(client.chainedRequest("/service-points?query="+ idQuery + QUERY_LIMIT,
-          okapiHeaders, true, null, handlePreviousResponse(false, false, false,
-          aRequestHasFailed, asyncResultHandler)));
+          .thenCompose(lease.getClient().chainedRequest("/service-points?query="+ idQuery + QUERY_LIMIT,
+          okapiHeaders, true, null, check))
+          .thenApply(spResponse -> {
+            if(isSuccessWithoutError(spResponse)) {
+              ReferenceDataCache.putServicePoints(lease.getOkapiUrl(), lease.getTenant(),
+                  spResponse.getBody().getJsonArray("servicepoints"));
+            }
+            return spResponse;
+          });
 
       return expandSPUResponse;
     });
   }
 
+  /**
+   * Patron group of a single user, served from {@link ReferenceDataCache} when possible.
+   *
+   * @param userResponse - response with the user, or with a users collection of one user
+   * @param groupTemplate - template of the patron group id in the user response
+   * @param check - validation of the user response
+   */
+  @SuppressWarnings("java:S1874")
+  private CompletableFuture<Response> lookupGroup(CompletableFuture<Response> userResponse,
+      String groupTemplate, HttpClientPool.Lease lease, Map<String, String> okapiHeaders,
+      Consumer<Response> check) {
+
+    return userResponse.thenCompose(user -> {
+      List<String> groupIds = isSuccessWithoutError(user)
+        ? patronGroupIds(user.getBody(), true) : List.of();
+      List<JsonObject> cached = groupIds.isEmpty() ? null
+        : ReferenceDataCache.getGroups(lease.getOkapiUrl(), lease.getTenant(), groupIds);
+      if (cached != null) {
+        check.accept(user);
+        Response groupResponse = new Response();
+        groupResponse.setCode(200);
+        groupResponse.setBody(cached.get(0));
+        return CompletableFuture.completedFuture(groupResponse);
+      }
+      return lease.getClient().chainedRequest("/groups/" + groupTemplate, okapiHeaders, null, check)
+        .apply(user)
+        .thenApply(groupResponse -> {
+          if (isSuccessWithoutError(groupResponse) && groupIds.contains(groupResponse.getBody().getString("id"))) {
+            ReferenceDataCache.putGroups(lease.getOkapiUrl(), lease.getTenant(),
+              new JsonArray().add(groupResponse.getBody()));
+          }
+          return groupResponse;
+        });
+    });
+  }
+
+  /**
+   * Patron groups of a users collection as a usergroups collection, served from
+   * {@link ReferenceDataCache} when all of them are cached.
+   *
+   * @param usersResponse - response with a users collection
+   * @param check - validation of the users response
+   */
+  @SuppressWarnings("java:S1874")
+  private CompletableFuture<Response> lookupGroups(CompletableFuture<Response> usersResponse,
+      HttpClientPool.Lease lease, Map<String, String> okapiHeaders, Consumer<Response> check) {
+
+    return usersResponse.thenCompose(users -> {
+      List<String> groupIds = isSuccessWithoutError(users)
+        ? patronGroupIds(users.getBody(), false) : List.of();
+      List<JsonObject> cached = groupIds.isEmpty() ? null
+        : ReferenceDataCache.getGroups(lease.getOkapiUrl(), lease.getTenant(), groupIds);
+      check.accept(users);
+      if (cached != null) {
+        return CompletableFuture.completedFuture(collectionResponse("usergroups", cached));
+      }
+      if (!isSuccessWithoutError(users)) {
+        return CompletableFuture.completedFuture(users);
+      }
+      return ChunkedJoinFetcher.getInstance()
+        .fetch(lease.getClient(), "/groups", "usergroups", "id", groupIds, 1, okapiHeaders)
+        .thenApply(groupsResponse -> {
+          if (isSuccessWithoutError(groupsResponse)) {
+            ReferenceDataCache.putGroups(lease.getOkapiUrl(), lease.getTenant(),
+              groupsResponse.getBody().getJsonArray("usergroups"));
+          }
+          return groupsResponse;
+        });
+    });
+  }
+
+  /**
+   * @param body - a user, or a users collection
+   * @param firstOnly - whether to only return the patron group of the first user of a collection
+   * @return distinct patron group ids
+   */
+  private static List<String> patronGroupIds(JsonObject body, boolean firstOnly) {
+    JsonArray users = body.getJsonArray("users");
+    if (users == null) {
+      String groupId = body.getString("patronGroup");
+      return groupId == null ? List.of() : List.of(groupId);
+    }
+    Set<String> groupIds = new LinkedHashSet<>();
+    for (int i = 0; i < users.size() && (i == 0 || !firstOnly); i++) {
+      String groupId = users.getJsonObject(i).getString("patronGroup");
+      if (groupId != null) {
+        groupIds.add(groupId);
+      }
+    }
+    return new ArrayList<>(groupIds);
+  }
+
+  private static boolean isSuccessWithoutError(Response response) {
+    return response != null && response.getError() == null
+      && Response.isSuccess(response.getCode()) && response.getBody() != null;
+  }
+
+  private static Response collectionResponse(String collectionName, List<JsonObject> records) {
+    Response response = new Response();
+    response.setCode(200);
+    response.setBody(new JsonObject()
+      .put(collectionName, new JsonArray(new ArrayList<>(records)))
+      .put("totalRecords", records.size()));
+    return response;
+  }
+
   /**
    *
    * @param locateUserFields - a list of fields to be used for search
@@ -1375,38 +2150,14 @@ public class BLUsersAPI implements BlUsers {
 
     try {
       String okapiURL = okapiHeaders.get(OKAPI_URL_HEADER);
-      String tenant = okapiHeaders.get(OKAPI_TENANT_HEADER);
-      String token = okapiHeaders.get(OKAPI_TOKEN_HEADER);
 
       Matcher matcher = HOST_PORT_PATTERN.matcher(okapiURL);
       if (!matcher.find()) {
         return Future.failedFuture("Could not parse okapiURL: " + okapiURL);
       }
 
-      ConfigurationsClient configurationsClient = new ConfigurationsClient(okapiURL, tenant, token);
-      StringBuilder query = new StringBuilder("module==USERSBL AND (")
-          .append(fieldAliasList.stream()
-              .map(f -> new StringBuilder("code==\"").append(f).append("\"").toString())
-              .collect(Collectors.joining(" or ")))
-          .append(")");
-
-      return configurationsClient.getConfigurationsEntries(query.toString(), 0, 3, null, null)
-          .map(result -> {
-            if (result.statusCode() != 200) {
-              throw new RuntimeException("Expected status code 200, got '" + result.statusCode() +
-                  "' :" + result.bodyAsString());
-            }
-
-            JsonObject entries = result.bodyAsJsonObject();
-
-            if (entries.getJsonArray("configs").isEmpty()) {
-              return DEFAULT_FIELDS_TO_LOCATE_USER;
-            }
-            return entries.getJsonArray("configs").stream()
-                .map(o -> ((JsonObject) o).getString("value"))
-                .flatMap(s -> Stream.of(s.split("[^\\w\\.]+")))
-                .toList();
-          });
+      return tenantConfigurationService.getLocateUserFields(fieldAliasList, new OkapiConnectionParams(okapiHeaders))
+          .map(fields -> fields.isEmpty() ? DEFAULT_FIELDS_TO_LOCATE_USER : fields);
     } catch (Exception e) {
       return Future.failedFuture(e);
     }
@@ -1443,7 +2194,8 @@ public class BLUsersAPI implements BlUsers {
     String tenant = okapiHeaders.get(OKAPI_TENANT_HEADER);
     String okapiURL = okapiHeaders.get(OKAPI_URL_HEADER);
     Promise<User> asyncResult = Promise.promise();
-    HttpClientInterface client = HttpClientFactory.getHttpClient(okapiURL, tenant);
+    HttpClientPool.Lease lease = HttpClientPool.acquire(okapiURL, tenant);
+    HttpClientInterface client = lease.getClient();
     String query = buildQuery(locateUserFields, entity.getId());
     try {
       String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
@@ -1484,7 +2236,7 @@ public class BLUsersAPI implements BlUsers {
       asyncResult.fail(e);
     }
     return asyncResult.future()
-        .onComplete(x -> client.closeClient());
+        .onComplete(x -> lease.release());
   }
 
   /*
@@ -0,0 +1,88 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.json.JsonObject;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-aware executor of composite user assembly.
+ *
+ * <p>Assembling and serializing a large page of composite users is CPU work that would stall
+ * every other request on the event loop. Work for at least {@code ASSEMBLY_OFFLOAD_THRESHOLD}
+ * users runs on a worker pool of {@code ASSEMBLY_POOL_SIZE} threads, smaller work runs on the
+ * calling thread.
+ */
+public class AssemblyExecutor {
+
+  private static final String POOL_NAME = "mod-users-bl-assembly";
+  private static final Map<Vertx, AssemblyExecutor> INSTANCES = new ConcurrentHashMap<>();
+
+  private final WorkerExecutor workerExecutor;
+  private final int threshold;
+  private final AtomicLong inline = new AtomicLong();
+  private final AtomicLong offloaded = new AtomicLong();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger running = new AtomicInteger();
+
+  AssemblyExecutor(WorkerExecutor workerExecutor, int threshold) {
+    this.workerExecutor = workerExecutor;
+    this.threshold = threshold;
+  }
+
+  /**
+   * @return the executor of the Vert.x instance, configured by {@code ASSEMBLY_OFFLOAD_THRESHOLD}
+   * and {@code ASSEMBLY_POOL_SIZE}
+   */
+  public static AssemblyExecutor getInstance(Vertx vertx) {
+    return INSTANCES.computeIfAbsent(vertx, v -> new AssemblyExecutor(
+      v.createSharedWorkerExecutor(POOL_NAME,
+        getEnvOrDefault("assembly.pool.size", "ASSEMBLY_POOL_SIZE", 4, Integer::parseInt)),
+      getEnvOrDefault("assembly.offload.threshold", "ASSEMBLY_OFFLOAD_THRESHOLD", 500, Integer::parseInt)));
+  }
+
+  /**
+   * @param size - number of users the task works on
+   * @param task - assembly task
+   * @return result of the task, completed on the calling context
+   */
+  public <T> Future<T> execute(int size, Callable<T> task) {
+    if (size < threshold) {
+      inline.incrementAndGet();
+      try {
+        return Future.succeededFuture(task.call());
+      } catch (Exception e) {
+        return Future.failedFuture(e);
+      }
+    }
+    offloaded.incrementAndGet();
+    queued.incrementAndGet();
+    return workerExecutor.executeBlocking(() -> {
+      queued.decrementAndGet();
+      running.incrementAndGet();
+      try {
+        return task.call();
+      } finally {
+        running.decrementAndGet();
+      }
+    }, false);
+  }
+
+  /**
+   * @return number of tasks run inline and offloaded, and of offloaded tasks waiting and running
+   */
+  public JsonObject metrics() {
+    return new JsonObject()
+      .put("inline", inline.get())
+      .put("offloaded", offloaded.get())
+      .put("queueDepth", queued.get())
+      .put("running", running.get());
+  }
+}
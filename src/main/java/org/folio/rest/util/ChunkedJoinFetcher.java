@@ -0,0 +1,175 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.folio.rest.tools.client.Response;
+import org.folio.rest.tools.client.interfaces.HttpClientInterface;
+import org.folio.util.PercentCodec;
+import org.folio.util.StringUtil;
+
+/**
+ * Fetches the records to join by a CQL {@code field==key} query in chunks.
+ *
+ * <p>The keys are de-duplicated and split into chunks of {@code JOIN_CHUNK_SIZE} keys. At most
+ * {@code JOIN_CONCURRENCY} chunk requests are in flight at a time. The records of all chunks are
+ * merged into one collection response; if a chunk fails, its response is returned instead so
+ * that the caller's error handling sees it.
+ */
+@SuppressWarnings("java:S1874")
+public class ChunkedJoinFetcher {
+
+  private static final ChunkedJoinFetcher INSTANCE = new ChunkedJoinFetcher(
+    getEnvOrDefault("join.chunk-size", "JOIN_CHUNK_SIZE", 50, Integer::parseInt),
+    getEnvOrDefault("join.concurrency", "JOIN_CONCURRENCY", 4, Integer::parseInt));
+
+  private final int chunkSize;
+  private final int concurrency;
+
+  ChunkedJoinFetcher(int chunkSize, int concurrency) {
+    this.chunkSize = Math.max(1, chunkSize);
+    this.concurrency = Math.max(1, concurrency);
+  }
+
+  /**
+   * @return the fetcher configured by {@code JOIN_CHUNK_SIZE} and {@code JOIN_CONCURRENCY}
+   */
+  public static ChunkedJoinFetcher getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * @param records - records, for example the users of a page
+   * @param field   - name of the field
+   * @return distinct non-null values of the field, in record order
+   */
+  public static Set<String> values(JsonArray records, String field) {
+    Set<String> values = new LinkedHashSet<>();
+    if (records == null) {
+      return values;
+    }
+    for (Object entry : records) {
+      if (entry instanceof JsonObject json && json.getString(field) != null) {
+        values.add(json.getString(field));
+      }
+    }
+    return values;
+  }
+
+  /**
+   * @param client        - client of the Okapi URL and tenant
+   * @param path          - path of the collection, for example {@code /perms/users}
+   * @param collection    - name of the records array in the response, for example {@code permissionUsers}
+   * @param field         - field the keys are matched against, for example {@code userId}
+   * @param keys          - keys to fetch the records of
+   * @param recordsPerKey - maximum number of records per key, sets the limit of a chunk request
+   * @param headers       - request headers
+   * @return response with the records of all chunks
+   */
+  public CompletableFuture<Response> fetch(HttpClientInterface client, String path, String collection,
+      String field, Collection<String> keys, int recordsPerKey, Map<String, String> headers) {
+
+    List<List<String>> chunks = chunks(keys);
+    if (chunks.isEmpty()) {
+      return CompletableFuture.completedFuture(merge(path, collection, List.of()));
+    }
+    List<CompletableFuture<Response>> results = new ArrayList<>(chunks.size());
+    for (int i = 0; i < chunks.size(); i++) {
+      results.add(new CompletableFuture<>());
+    }
+    AtomicInteger next = new AtomicInteger();
+    AtomicBoolean failed = new AtomicBoolean();
+    for (int i = 0; i < Math.min(concurrency, chunks.size()); i++) {
+      startNext(client, path, field, chunks, recordsPerKey, headers, results, next, failed);
+    }
+    return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+      .thenApply(v -> merge(path, collection, results.stream().map(CompletableFuture::join).toList()));
+  }
+
+  private void startNext(HttpClientInterface client, String path, String field, List<List<String>> chunks,
+      int recordsPerKey, Map<String, String> headers, List<CompletableFuture<Response>> results,
+      AtomicInteger next, AtomicBoolean failed) {
+
+    int i = next.getAndIncrement();
+    if (i >= chunks.size()) {
+      return;
+    }
+    CompletableFuture<Response> result = results.get(i);
+    if (failed.get()) {
+      // a failed chunk fails the join, don't send the remaining chunks
+      result.complete(null);
+      startNext(client, path, field, chunks, recordsPerKey, headers, results, next, failed);
+      return;
+    }
+    List<String> chunk = chunks.get(i);
+    String query = chunk.stream()
+      .map(key -> field + "==" + StringUtil.cqlEncode(key))
+      .collect(Collectors.joining(" or "));
+    String url = path + "?query=" + PercentCodec.encode(query) + "&limit=" + chunk.size() * recordsPerKey;
+    try {
+      client.request(url, headers).whenComplete((response, e) -> {
+        if (e != null) {
+          failed.set(true);
+          result.completeExceptionally(e);
+        } else {
+          if (!isSuccess(response)) {
+            failed.set(true);
+          }
+          result.complete(response);
+        }
+        startNext(client, path, field, chunks, recordsPerKey, headers, results, next, failed);
+      });
+    } catch (Exception e) {
+      failed.set(true);
+      result.completeExceptionally(e);
+      startNext(client, path, field, chunks, recordsPerKey, headers, results, next, failed);
+    }
+  }
+
+  private List<List<String>> chunks(Collection<String> keys) {
+    List<String> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+    List<List<String>> chunks = new ArrayList<>();
+    for (int from = 0; from < distinct.size(); from += chunkSize) {
+      chunks.add(distinct.subList(from, Math.min(distinct.size(), from + chunkSize)));
+    }
+    return chunks;
+  }
+
+  private static Response merge(String path, String collection, List<Response> responses) {
+    JsonArray records = new JsonArray();
+    for (Response response : responses) {
+      if (response == null) {
+        continue;
+      }
+      if (!isSuccess(response)) {
+        return response;
+      }
+      JsonArray chunkRecords = response.getBody().getJsonArray(collection);
+      if (chunkRecords != null) {
+        records.addAll(chunkRecords);
+      }
+    }
+    Response merged = new Response();
+    merged.setCode(200);
+    merged.setEndpoint(path);
+    merged.setBody(new JsonObject()
+      .put(collection, records)
+      .put("totalRecords", records.size()));
+    return merged;
+  }
+
+  private static boolean isSuccess(Response response) {
+    return response.getError() == null && Response.isSuccess(response.getCode()) && response.getBody() != null;
+  }
+}
@@ -0,0 +1,258 @@
+package org.folio.rest.util;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.folio.rest.jaxrs.model.CompositeUser;
+import org.folio.rest.jaxrs.model.Permissions;
+import org.folio.rest.jaxrs.model.ProxiesFor;
+import org.folio.rest.jaxrs.model.ServicePoint;
+import org.folio.rest.jaxrs.model.ServicePointsUser;
+import org.folio.rest.tools.client.Response;
+
+/**
+ * Hash join of the users of a {@code /users} page with their patron groups, permission users,
+ * proxies and service points.
+ *
+ * <p>Each include is indexed by its join key in one pass, then every user is assembled into a
+ * {@link CompositeUser} with map lookups. The output has the shape of the former JSON path join:
+ * the user under {@code users}, the patron group under {@code groups}, the permission names under
+ * {@code permissions.permissions} and the user's proxies under {@code proxiesFor}. Service points
+ * and expanded permissions have the shape of the single user endpoints, full permission
+ * definitions or names only.
+ */
+@SuppressWarnings("java:S1874")
+public class CompositeUserAssembler {
+
+  public static final String USERS_FIELD = "users";
+  public static final String GROUPS_FIELD = "groups";
+
+  private final Map<String, JsonObject> groupsById;
+  private final Map<String, JsonObject> permissionUsersByUserId;
+  private final Map<String, List<JsonObject>> proxiesByUserId;
+  private final Map<String, JsonObject> servicePointsUsersByUserId;
+  private final Map<String, JsonObject> servicePointsById;
+  private final Map<String, JsonObject> permissionsByName;
+  private final boolean fullPermissions;
+
+  /**
+   * Index the includes by their join keys.
+   *
+   * @param groups          - patron group records, null if groups are not included
+   * @param permissionUsers - permission user records, null if permissions are not included
+   * @param proxiesFor      - proxy records, null if proxies are not included
+   */
+  public CompositeUserAssembler(JsonArray groups, JsonArray permissionUsers, JsonArray proxiesFor) {
+    this(groups, permissionUsers, proxiesFor, null, null, null, false);
+  }
+
+  /**
+   * Index the includes by their join keys.
+   *
+   * @param groups             - patron group records, null if groups are not included
+   * @param permissionUsers    - permission user records, null if permissions are not included
+   * @param proxiesFor         - proxy records, null if proxies are not included
+   * @param servicePointsUsers - service points user records, null if service points are not included
+   * @param servicePoints      - service point records of the service points users
+   * @param permissions        - definitions of the permissions of the permission users and of all
+   *                             their sub-permissions, null if permissions are not expanded
+   * @param fullPermissions    - whether expanded permissions are their definitions rather than
+   *                             {@code {"permissionName": ...}} entries
+   */
+  @SuppressWarnings("java:S107")
+  public CompositeUserAssembler(JsonArray groups, JsonArray permissionUsers, JsonArray proxiesFor,
+      JsonArray servicePointsUsers, JsonArray servicePoints, JsonArray permissions, boolean fullPermissions) {
+    groupsById = index(groups, "id");
+    permissionUsersByUserId = index(permissionUsers, "userId");
+    proxiesByUserId = group(proxiesFor, "userId");
+    servicePointsUsersByUserId = index(servicePointsUsers, "userId");
+    servicePointsById = index(servicePoints, "id");
+    permissionsByName = permissions == null ? null : index(permissions, "permissionName");
+    this.fullPermissions = fullPermissions;
+  }
+
+  /**
+   * @param users           - user records of the page
+   * @param groups          - patron group records, null if groups are not included
+   * @param permissionUsers - permission user records, null if permissions are not included
+   * @param proxiesFor      - proxy records, null if proxies are not included
+   * @return one composite user per user record, in page order
+   */
+  public static List<CompositeUser> assemble(JsonArray users, JsonArray groups,
+      JsonArray permissionUsers, JsonArray proxiesFor) {
+
+    CompositeUserAssembler assembler = new CompositeUserAssembler(groups, permissionUsers, proxiesFor);
+    List<CompositeUser> compositeUsers = new ArrayList<>(users.size());
+    for (Object entry : users) {
+      if (entry instanceof JsonObject user) {
+        compositeUsers.add(assembler.assemble(user));
+      }
+    }
+    return compositeUsers;
+  }
+
+  /**
+   * @param user - user record
+   * @return the composite user of the user record
+   */
+  public CompositeUser assemble(JsonObject user) {
+    CompositeUser compositeUser = new CompositeUser();
+    compositeUser.setAdditionalProperty(USERS_FIELD, plain(user));
+    String userId = user.getString("id");
+
+    JsonObject group = groupsById.get(user.getString("patronGroup"));
+    if (group != null) {
+      compositeUser.setAdditionalProperty(GROUPS_FIELD, plain(group));
+    }
+    JsonObject permissionUser = permissionUsersByUserId.get(userId);
+    if (permissionUser != null && permissionUser.getJsonArray("permissions") != null) {
+      JsonArray permissions = permissionUser.getJsonArray("permissions");
+      compositeUser.setPermissions(new Permissions().withPermissions(permissionsByName == null
+        ? new ArrayList<>(permissions.getList()) : expand(permissions)));
+    }
+    List<JsonObject> proxies = proxiesByUserId.get(userId);
+    if (proxies != null) {
+      List<ProxiesFor> typedProxies = new ArrayList<>(proxies.size());
+      for (JsonObject proxy : proxies) {
+        typedProxies.add((ProxiesFor) Response.convertToPojo(proxy, ProxiesFor.class));
+      }
+      compositeUser.setProxiesFor(typedProxies);
+    }
+    JsonObject servicePointsUser = servicePointsUsersByUserId.get(userId);
+    if (servicePointsUser != null) {
+      compositeUser.setServicePointsUser(servicePointsUser(servicePointsUser));
+    }
+    return compositeUser;
+  }
+
+  /**
+   * Service points user with the service points of its default and assigned service point ids.
+   */
+  private ServicePointsUser servicePointsUser(JsonObject json) {
+    ServicePointsUser servicePointsUser = (ServicePointsUser) Response.convertToPojo(json, ServicePointsUser.class);
+    Set<String> ids = new LinkedHashSet<>();
+    if (json.getString("defaultServicePointId") != null) {
+      ids.add(json.getString("defaultServicePointId"));
+    }
+    JsonArray servicePointsIds = json.getJsonArray("servicePointsIds");
+    if (servicePointsIds != null) {
+      for (Object id : servicePointsIds) {
+        if (id instanceof String s) {
+          ids.add(s);
+        }
+      }
+    }
+    List<ServicePoint> servicePoints = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      JsonObject servicePoint = servicePointsById.get(id);
+      if (servicePoint != null) {
+        servicePoints.add((ServicePoint) Response.convertToPojo(servicePoint, ServicePoint.class));
+      }
+    }
+    servicePointsUser.setServicePoints(servicePoints);
+    return servicePointsUser;
+  }
+
+  /**
+   * Expand permission names with all their sub-permissions like
+   * {@code /perms/users/{id}/permissions?expanded=true}: each as its definition if full permissions
+   * are requested and the definition is known, otherwise as a {@code {"permissionName": ...}} entry.
+   */
+  private List<Object> expand(JsonArray permissionNames) {
+    Set<String> names = new LinkedHashSet<>();
+    Deque<String> pending = new ArrayDeque<>();
+    for (Object name : permissionNames) {
+      if (name instanceof String s) {
+        pending.add(s);
+      }
+    }
+    while (!pending.isEmpty()) {
+      String name = pending.poll();
+      if (names.add(name)) {
+        pending.addAll(subPermissions(permissionsByName.get(name)));
+      }
+    }
+    List<Object> expanded = new ArrayList<>(names.size());
+    for (String name : names) {
+      JsonObject definition = fullPermissions ? permissionsByName.get(name) : null;
+      expanded.add(definition == null ? Map.of("permissionName", name) : plain(definition));
+    }
+    return expanded;
+  }
+
+  /**
+   * @param permission - permission definition, null if unknown
+   * @return names of the direct sub-permissions
+   */
+  public static List<String> subPermissions(JsonObject permission) {
+    JsonArray subPermissions = permission == null ? null : permission.getJsonArray("subPermissions");
+    if (subPermissions == null) {
+      return List.of();
+    }
+    List<String> names = new ArrayList<>(subPermissions.size());
+    for (Object subPermission : subPermissions) {
+      Object name = subPermission instanceof JsonObject json ? json.getString("permissionName") : subPermission;
+      if (name instanceof String s) {
+        names.add(s);
+      }
+    }
+    return names;
+  }
+
+  private static Map<String, JsonObject> index(JsonArray records, String key) {
+    if (records == null) {
+      return Map.of();
+    }
+    Map<String, JsonObject> index = new HashMap<>(records.size() * 2);
+    for (Object entry : records) {
+      if (entry instanceof JsonObject json && json.getString(key) != null) {
+        index.putIfAbsent(json.getString(key), json);
+      }
+    }
+    return index;
+  }
+
+  private static Map<String, List<JsonObject>> group(JsonArray records, String key) {
+    if (records == null) {
+      return Map.of();
+    }
+    Map<String, List<JsonObject>> index = new HashMap<>(records.size() * 2);
+    for (Object entry : records) {
+      if (entry instanceof JsonObject json && json.getString(key) != null) {
+        index.computeIfAbsent(json.getString(key), k -> new ArrayList<>(1)).add(json);
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Copy of the JSON tree made of plain maps and lists, which Jackson serializes as JSON.
+   */
+  static Object plain(Object value) {
+    if (value instanceof JsonObject json) {
+      return plain(json.getMap());
+    }
+    if (value instanceof JsonArray array) {
+      return plain(array.getList());
+    }
+    if (value instanceof Map<?, ?> map) {
+      Map<String, Object> copy = new LinkedHashMap<>(map.size() * 2);
+      map.forEach((k, v) -> copy.put(String.valueOf(k), plain(v)));
+      return copy;
+    }
+    if (value instanceof List<?> list) {
+      List<Object> copy = new ArrayList<>(list.size());
+      list.forEach(v -> copy.add(plain(v)));
+      return copy;
+    }
+    return value;
+  }
+}
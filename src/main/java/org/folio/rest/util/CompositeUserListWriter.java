@@ -0,0 +1,71 @@
+package org.folio.rest.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import org.folio.dbschema.ObjectMapperTool;
+
+/**
+ * Writes the {@code compositeUsers} list of a {@code /users} page one user at a time.
+ *
+ * <p>Each composite user is assembled, serialized and dropped before the next one, so the
+ * composite users of a page are never held as a list of POJOs or as a JSON tree. RMB sends a
+ * response entity as a whole, so the serialized page is still buffered and returned as one
+ * string; the buffer grows as users are written.
+ */
+public final class CompositeUserListWriter {
+
+  private static final ObjectMapper MAPPER = ObjectMapperTool.getMapper();
+
+  private CompositeUserListWriter() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * Users of a page, or of a sub-page, with the assembler of their composite users.
+   */
+  public record Page(JsonArray users, CompositeUserAssembler assembler) {
+  }
+
+  /**
+   * @param users      - user records of the page
+   * @param assembler  - assembler of the composite users
+   * @param nextCursor - cursor of the next page, null for none
+   * @return JSON of a composite user list object with the composite users of the page
+   */
+  public static String write(JsonArray users, CompositeUserAssembler assembler, String nextCursor)
+      throws IOException {
+
+    return write(List.of(new Page(users, assembler)), nextCursor);
+  }
+
+  /**
+   * @param pages      - sub-pages of the page, in order
+   * @param nextCursor - cursor of the next page, null for none
+   * @return JSON of a composite user list object with the composite users of all sub-pages
+   */
+  public static String write(List<Page> pages, String nextCursor) throws IOException {
+    StringWriter out = new StringWriter();
+    try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out)) {
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("compositeUsers");
+      for (Page page : pages) {
+        for (Object entry : page.users()) {
+          if (entry instanceof JsonObject user) {
+            MAPPER.writeValue(generator, page.assembler().assemble(user));
+          }
+        }
+      }
+      generator.writeEndArray();
+      if (nextCursor != null) {
+        generator.writeStringField("nextCursor", nextCursor);
+      }
+      generator.writeEndObject();
+    }
+    return out.toString();
+  }
+}
@@ -0,0 +1,89 @@
+package org.folio.rest.util;
+
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * SHA-256 fingerprints of tokens, response bodies and permission sets.
+ */
+public final class Fingerprints {
+
+  private Fingerprints() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * @param content - content, may be null
+   * @return hex SHA-256 hash of the content, empty for null
+   */
+  public static String of(String content) {
+    if (content == null) {
+      return "";
+    }
+    try {
+      return HexFormat.of().formatHex(
+        MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Fingerprint of a permission set that doesn't depend on the order or on duplicates of the
+   * permissions, but distinguishes plain names from expanded permission objects. An expanded
+   * permission is hashed as its JSON with sorted keys, so a changed definition changes the
+   * fingerprint.
+   *
+   * @param permissions - permission names or permission objects, may be null
+   * @return fingerprint of the permission set, null for null
+   */
+  public static String ofPermissions(List<?> permissions) {
+    if (permissions == null) {
+      return null;
+    }
+    boolean expanded = false;
+    TreeSet<String> entries = new TreeSet<>();
+    for (Object permission : permissions) {
+      if (permission instanceof Map<?, ?> || permission instanceof JsonObject) {
+        expanded = true;
+        entries.add(Json.encode(sorted(permission)));
+      } else {
+        entries.add(String.valueOf(permission));
+      }
+    }
+    return of((expanded ? "expanded\n" : "names\n") + String.join("\n", entries));
+  }
+
+  /**
+   * @return the JSON value with the keys of all its objects in sorted order
+   */
+  private static Object sorted(Object value) {
+    if (value instanceof JsonObject json) {
+      return sorted(json.getMap());
+    }
+    if (value instanceof JsonArray array) {
+      return sorted(array.getList());
+    }
+    if (value instanceof Map<?, ?> map) {
+      Map<String, Object> sortedMap = new TreeMap<>();
+      map.forEach((k, v) -> sortedMap.put(String.valueOf(k), sorted(v)));
+      return sortedMap;
+    }
+    if (value instanceof List<?> list) {
+      List<Object> sortedList = new ArrayList<>(list.size());
+      list.forEach(v -> sortedList.add(sorted(v)));
+      return sortedList;
+    }
+    return value;
+  }
+}
@@ -0,0 +1,168 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
+
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.tools.client.HttpClientFactory;
+import org.folio.rest.tools.client.interfaces.HttpClientInterface;
+
+/**
+ * Long-lived {@link HttpClientInterface} instances, one per Okapi gateway and tenant.
+ *
+ * <p>The composite-user and login paths used to create a client for every incoming request and
+ * close it at the end, so each request opened new connections to the gateway. The pooled clients
+ * are created without auto-close and are shared by all requests for the same gateway and tenant;
+ * a client is only closed when it has been idle for longer than the idle timeout or when the
+ * pool grows beyond its maximum size.
+ */
+@SuppressWarnings("java:S1874")
+public final class HttpClientPool {
+
+  private static final Logger LOG = LogManager.getLogger(HttpClientPool.class);
+
+  private static final int MAX_CLIENTS = getEnvOrDefault(
+    "http.client.pool.max-clients", "HTTP_CLIENT_POOL_MAX_CLIENTS", 64, Integer::parseInt);
+  private static final long IDLE_TIMEOUT_MS = getEnvOrDefault(
+    "http.client.pool.idle-timeout", "HTTP_CLIENT_POOL_IDLE_TIMEOUT", 60_000L, Long::parseLong);
+
+  /** Access ordered, so iteration starts with the least recently used client. Guarded by itself. */
+  private static final Map<String, Entry> CLIENTS = new LinkedHashMap<>(16, 0.75f, true);
+  private static final AtomicLong CREATED = new AtomicLong();
+  private static final AtomicLong EVICTIONS = new AtomicLong();
+
+  private HttpClientPool() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * Borrow the shared client for the given gateway and tenant. The returned lease must be
+   * released when the incoming request is done with it; the client itself stays open.
+   *
+   * @param okapiUrl - Okapi URL
+   * @param tenant   - tenant id
+   * @return lease of the pooled client
+   */
+  public static Lease acquire(String okapiUrl, String tenant) {
+    String key = okapiUrl + "|" + tenant;
+    List<Entry> evicted = new ArrayList<>();
+    Entry entry;
+    synchronized (CLIENTS) {
+      collectEvictable(System.currentTimeMillis(), evicted);
+      entry = CLIENTS.get(key);
+      if (entry == null) {
+        entry = new Entry(HttpClientFactory.getHttpClient(okapiUrl, tenant, false), okapiUrl, tenant);
+        CLIENTS.put(key, entry);
+        CREATED.incrementAndGet();
+      }
+      entry.inUse++;
+    }
+    close(evicted);
+    return new Lease(entry);
+  }
+
+  /**
+   * @return snapshot of the pool: pooled clients, leases in use, upstream requests pending on the
+   * shared Vert.x client, clients created and clients evicted
+   */
+  public static JsonObject metrics() {
+    int clients;
+    int inUse = 0;
+    synchronized (CLIENTS) {
+      clients = CLIENTS.size();
+      for (Entry entry : CLIENTS.values()) {
+        inUse += entry.inUse;
+      }
+    }
+    return new JsonObject()
+      .put("clients", clients)
+      .put("inUse", inUse)
+      .put("pending", RestUtil.getPendingRequests())
+      .put("created", CREATED.get())
+      .put("evictions", EVICTIONS.get());
+  }
+
+  private static void collectEvictable(long now, List<Entry> evicted) {
+    Iterator<Entry> iterator = CLIENTS.values().iterator();
+    int size = CLIENTS.size();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      boolean idle = entry.inUse == 0;
+      if (idle && (size > MAX_CLIENTS || now - entry.lastReleased > IDLE_TIMEOUT_MS)) {
+        iterator.remove();
+        evicted.add(entry);
+        size--;
+      }
+    }
+  }
+
+  private static void close(List<Entry> evicted) {
+    for (Entry entry : evicted) {
+      EVICTIONS.incrementAndGet();
+      try {
+        entry.client.closeClient();
+      } catch (Exception e) {
+        LOG.warn("close:: failed to close evicted client: {}", e.getMessage());
+      }
+    }
+    if (!evicted.isEmpty()) {
+      LOG.debug("close:: evicted {} client(s), pool metrics {}", evicted.size(), metrics().encode());
+    }
+  }
+
+  private static final class Entry {
+    private final HttpClientInterface client;
+    private final String okapiUrl;
+    private final String tenant;
+    private int inUse;
+    private long lastReleased = System.currentTimeMillis();
+
+    private Entry(HttpClientInterface client, String okapiUrl, String tenant) {
+      this.client = client;
+      this.okapiUrl = okapiUrl;
+      this.tenant = tenant;
+    }
+  }
+
+  /**
+   * A borrowed pooled client. {@link #release()} may be called more than once, only the first
+   * call returns the client to the pool.
+   */
+  public static final class Lease {
+    private final Entry entry;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Lease(Entry entry) {
+      this.entry = entry;
+    }
+
+    public HttpClientInterface getClient() {
+      return entry.client;
+    }
+
+    public String getOkapiUrl() {
+      return entry.okapiUrl;
+    }
+
+    public String getTenant() {
+      return entry.tenant;
+    }
+
+    public void release() {
+      if (released.compareAndSet(false, true)) {
+        synchronized (CLIENTS) {
+          entry.inUse--;
+          entry.lastReleased = System.currentTimeMillis();
+        }
+      }
+    }
+  }
+}
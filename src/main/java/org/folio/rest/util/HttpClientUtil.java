@@ -5,12 +5,21 @@ import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
 import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.PoolOptions;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public final class HttpClientUtil {
   private static final String LOOKUP_TIMEOUT = "lookup.timeout";
   private static final String LOOKUP_TIMEOUT_VAL = "1000";
+  private static final String POOL_SIZE = "http.client.pool.size";
+  private static final int POOL_SIZE_VAL = 50;
+  private static final String KEEP_ALIVE_TIMEOUT = "http.client.keep-alive.timeout";
+  private static final int KEEP_ALIVE_TIMEOUT_VAL = 60;
+  private static final String WAIT_QUEUE_SIZE = "http.client.wait-queue.size";
+  private static final int WAIT_QUEUE_SIZE_VAL = -1;
+  private static final String HTTP2 = "http.client.http2";
   private static final Map<Vertx, HttpClient> HTTP_CLIENT_CACHE = new ConcurrentHashMap<>();
 
   private HttpClientUtil() {
@@ -27,6 +36,18 @@ public final class HttpClientUtil {
     HttpClientOptions options = new HttpClientOptions();
     options.setConnectTimeout(lookupTimeout);
     options.setIdleTimeout(lookupTimeout);
-    return vertx.createHttpClient(options);
+    options.setKeepAlive(true);
+    options.setKeepAliveTimeout(getEnvOrDefault(
+      KEEP_ALIVE_TIMEOUT, "HTTP_CLIENT_KEEP_ALIVE_TIMEOUT", KEEP_ALIVE_TIMEOUT_VAL, Integer::parseInt));
+    if (Boolean.TRUE.equals(getEnvOrDefault(HTTP2, "HTTP_CLIENT_HTTP2", false, Boolean::parseBoolean))) {
+      options.setProtocolVersion(HttpVersion.HTTP_2);
+    }
+    int poolSize = getEnvOrDefault(POOL_SIZE, "HTTP_CLIENT_POOL_SIZE", POOL_SIZE_VAL, Integer::parseInt);
+    PoolOptions poolOptions = new PoolOptions()
+      .setHttp1MaxSize(poolSize)
+      .setHttp2MaxSize(Math.max(1, poolSize / 10))
+      .setMaxWaitQueueSize(getEnvOrDefault(
+        WAIT_QUEUE_SIZE, "HTTP_CLIENT_WAIT_QUEUE_SIZE", WAIT_QUEUE_SIZE_VAL, Integer::parseInt));
+    return vertx.createHttpClient(options, poolOptions);
   }
 }
@@ -0,0 +1,200 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
+
+import io.vertx.core.json.JsonObject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.tools.client.Response;
+
+/**
+ * Per-tenant, per-user cache of permission lookups.
+ *
+ * <p>A response is served from the cache for {@code ttlMillis} after it has been fetched. After
+ * that, and until {@code maxStalenessMillis}, the cached response is still served but a
+ * background request refreshes it. Older responses are never served, so a revoked permission
+ * is visible after at most {@code maxStalenessMillis}. A TTL of 0 disables the cache.
+ */
+@SuppressWarnings("java:S1874")
+public class PermissionCache {
+
+  private static final Logger LOG = LogManager.getLogger(PermissionCache.class);
+
+  private static final PermissionCache INSTANCE = new PermissionCache(
+    getEnvOrDefault("permission.cache.max-size", "PERMISSION_CACHE_MAX_SIZE", 10_000, Integer::parseInt),
+    getEnvOrDefault("permission.cache.ttl", "PERMISSION_CACHE_TTL", 0L, Long::parseLong),
+    getEnvOrDefault("permission.cache.max-staleness", "PERMISSION_CACHE_MAX_STALENESS", 60_000L, Long::parseLong),
+    System::currentTimeMillis);
+
+  private final long ttlMillis;
+  private final long maxStalenessMillis;
+  private final LongSupplier clock;
+  private final Map<String, Entry> entries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong staleHits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong refreshes = new AtomicLong();
+
+  PermissionCache(int maxSize, long ttlMillis, long maxStalenessMillis, LongSupplier clock) {
+    this.ttlMillis = ttlMillis;
+    this.maxStalenessMillis = Math.max(ttlMillis, maxStalenessMillis);
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * @return the cache configured by {@code PERMISSION_CACHE_TTL}, {@code PERMISSION_CACHE_MAX_STALENESS}
+   * and {@code PERMISSION_CACHE_MAX_SIZE}
+   */
+  public static PermissionCache getInstance() {
+    return INSTANCE;
+  }
+
+  public boolean isEnabled() {
+    return ttlMillis > 0;
+  }
+
+  /**
+   * Serve the permission lookup from the cache, or send it with the loader.
+   *
+   * @param okapiUrl - Okapi URL
+   * @param tenant   - tenant id
+   * @param url      - url of the lookup, it names the user
+   * @param loader   - sends the lookup
+   * @return response of the lookup
+   */
+  public CompletableFuture<Response> get(String okapiUrl, String tenant, String url,
+      Callable<CompletableFuture<Response>> loader) throws Exception {
+
+    if (!isEnabled()) {
+      return loader.call();
+    }
+    String key = key(okapiUrl, tenant, url);
+    long now = clock.getAsLong();
+    Entry entry;
+    boolean refresh = false;
+    synchronized (entries) {
+      entry = entries.get(key);
+      if (entry != null && now - entry.fetched >= maxStalenessMillis) {
+        entries.remove(key);
+        entry = null;
+      }
+      if (entry != null && now - entry.fetched >= ttlMillis && !entry.refreshing) {
+        entry.refreshing = true;
+        refresh = true;
+      }
+    }
+    if (entry == null) {
+      misses.incrementAndGet();
+      return loader.call().thenApply(response -> {
+        store(key, response);
+        return response;
+      });
+    }
+    if (refresh) {
+      staleHits.incrementAndGet();
+      refresh(key, entry, loader);
+    } else {
+      hits.incrementAndGet();
+    }
+    return CompletableFuture.completedFuture(entry.toResponse(url));
+  }
+
+  /**
+   * Drop all cached lookups of the tenant.
+   */
+  public void invalidate(String okapiUrl, String tenant) {
+    String prefix = key(okapiUrl, tenant, "");
+    synchronized (entries) {
+      entries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+  }
+
+  public void invalidateAll() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * @return number of cached lookups, fresh hits, stale hits, misses and background refreshes
+   */
+  public JsonObject metrics() {
+    int size;
+    synchronized (entries) {
+      size = entries.size();
+    }
+    return new JsonObject()
+      .put("size", size)
+      .put("hits", hits.get())
+      .put("staleHits", staleHits.get())
+      .put("misses", misses.get())
+      .put("refreshes", refreshes.get());
+  }
+
+  private void refresh(String key, Entry stale, Callable<CompletableFuture<Response>> loader) {
+    refreshes.incrementAndGet();
+    try {
+      loader.call().whenComplete((response, e) -> {
+        if (!store(key, response)) {
+          synchronized (entries) {
+            stale.refreshing = false;
+          }
+        }
+      });
+    } catch (Exception e) {
+      LOG.warn("refresh:: failed to refresh {}: {}", key, e.getMessage());
+      synchronized (entries) {
+        stale.refreshing = false;
+      }
+    }
+  }
+
+  private boolean store(String key, Response response) {
+    if (response == null || response.getError() != null || !Response.isSuccess(response.getCode())
+        || response.getBody() == null) {
+      return false;
+    }
+    Entry entry = new Entry(response.getCode(), response.getBody().copy(), clock.getAsLong());
+    synchronized (entries) {
+      entries.put(key, entry);
+    }
+    return true;
+  }
+
+  private static String key(String okapiUrl, String tenant, String url) {
+    return okapiUrl + "|" + tenant + "|" + url;
+  }
+
+  private static final class Entry {
+    private final int code;
+    private final JsonObject body;
+    private final long fetched;
+    private boolean refreshing;
+
+    private Entry(int code, JsonObject body, long fetched) {
+      this.code = code;
+      this.body = body;
+      this.fetched = fetched;
+    }
+
+    private Response toResponse(String url) {
+      Response response = new Response();
+      response.setCode(code);
+      response.setBody(body.copy());
+      response.setEndpoint(url);
+      return response;
+    }
+  }
+}
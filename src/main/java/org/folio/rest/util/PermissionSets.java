@@ -0,0 +1,162 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canonical permission sets of the composite users of a tenant.
+ *
+ * <p>Most staff users share one of a few role-derived permission sets. Identical sets are
+ * detected by their {@link Fingerprints#ofPermissions fingerprint} and share one immutable
+ * {@link PermissionList} that is serialized to JSON once. At most {@code PERMISSION_SETS_MAX_SIZE}
+ * sets are kept per tenant, the least recently used set is dropped first.
+ */
+public class PermissionSets {
+
+  private static final PermissionSets INSTANCE = new PermissionSets(
+    getEnvOrDefault("permission-sets.max-size", "PERMISSION_SETS_MAX_SIZE", 1_000, Integer::parseInt));
+
+  private final int maxSize;
+  private final Map<String, Map<String, PermissionList>> tenants = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  PermissionSets(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * @return the store configured by {@code PERMISSION_SETS_MAX_SIZE}
+   */
+  public static PermissionSets getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * @param tenant      - tenant id
+   * @param permissions - permission names or {@code permissionName} objects, may be null
+   * @return the canonical list of the permission set, or a new unshared list if the canonical
+   * list has the same permissions in a different order; null for null
+   */
+  public PermissionList intern(String tenant, List<?> permissions) {
+    if (permissions == null) {
+      return null;
+    }
+    if (permissions instanceof PermissionList interned) {
+      return interned;
+    }
+    String fingerprint = Fingerprints.ofPermissions(permissions);
+    Map<String, PermissionList> sets = tenants.computeIfAbsent(String.valueOf(tenant), t -> lru());
+    synchronized (sets) {
+      PermissionList canonical = sets.get(fingerprint);
+      if (canonical != null && canonical.equals(permissions)) {
+        hits.incrementAndGet();
+        return canonical;
+      }
+    }
+    misses.incrementAndGet();
+    PermissionList canonical = new PermissionList(fingerprint, permissions);
+    synchronized (sets) {
+      PermissionList existing = sets.get(fingerprint);
+      if (existing == null) {
+        sets.put(fingerprint, canonical);
+        return canonical;
+      }
+      //keep the order of the user's permissions, a differently ordered set isn't shared
+      return existing.equals(canonical) ? existing : canonical;
+    }
+  }
+
+  public void invalidateAll() {
+    tenants.clear();
+  }
+
+  /**
+   * @return number of canonical sets, hits and misses
+   */
+  public JsonObject metrics() {
+    int size = 0;
+    for (Map<String, PermissionList> sets : tenants.values()) {
+      synchronized (sets) {
+        size += sets.size();
+      }
+    }
+    return new JsonObject()
+      .put("size", size)
+      .put("hits", hits.get())
+      .put("misses", misses.get());
+  }
+
+  private Map<String, PermissionList> lru() {
+    return new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, PermissionList> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Immutable permission list with its fingerprint and its JSON, which is written as is.
+   */
+  @JsonSerialize(using = PermissionListSerializer.class)
+  public static final class PermissionList extends AbstractList<Object> {
+
+    private final String fingerprint;
+    private final Object[] permissions;
+    private final String json;
+
+    PermissionList(String fingerprint, List<?> permissions) {
+      this.fingerprint = fingerprint;
+      this.permissions = permissions.toArray();
+      this.json = new JsonArray(Arrays.asList(this.permissions)).encode();
+    }
+
+    /**
+     * @return fingerprint of the permission set, see {@link Fingerprints#ofPermissions}
+     */
+    public String fingerprint() {
+      return fingerprint;
+    }
+
+    /**
+     * @return JSON array of the permissions
+     */
+    public String json() {
+      return json;
+    }
+
+    @Override
+    public Object get(int index) {
+      return permissions[index];
+    }
+
+    @Override
+    public int size() {
+      return permissions.length;
+    }
+  }
+
+  public static final class PermissionListSerializer extends JsonSerializer<PermissionList> {
+
+    @Override
+    public void serialize(PermissionList list, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      generator.writeRawValue(list.json());
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tenant-scoped cache of patron groups and service points.
+ *
+ * <p>A tenant has few of these records and they change rarely, but every composite user
+ * includes them. Records are keyed by Okapi URL, tenant and record id, and are dropped after
+ * {@code REFERENCE_DATA_CACHE_TTL} milliseconds. Changes of the records by other modules aren't
+ * seen until then, so the cache is disabled by default.
+ */
+public final class ReferenceDataCache {
+
+  private static final int MAX_SIZE = getEnvOrDefault(
+    "reference-data.cache.max-size", "REFERENCE_DATA_CACHE_MAX_SIZE", 10_000, Integer::parseInt);
+  private static final long TTL_MS = getEnvOrDefault(
+    "reference-data.cache.ttl", "REFERENCE_DATA_CACHE_TTL", 0L, Long::parseLong);
+
+  private static final TtlCache<String, JsonObject> GROUPS = new TtlCache<>(MAX_SIZE, TTL_MS);
+  private static final TtlCache<String, JsonObject> SERVICE_POINTS = new TtlCache<>(MAX_SIZE, TTL_MS);
+
+  private ReferenceDataCache() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  public static boolean isEnabled() {
+    return TTL_MS > 0;
+  }
+
+  /**
+   * @return the cached patron groups, or null if any of them isn't cached
+   */
+  public static List<JsonObject> getGroups(String okapiUrl, String tenant, Collection<String> ids) {
+    return getAll(GROUPS, okapiUrl, tenant, ids);
+  }
+
+  /**
+   * @param groups - patron group records, each with an id
+   */
+  public static void putGroups(String okapiUrl, String tenant, JsonArray groups) {
+    putAll(GROUPS, okapiUrl, tenant, groups);
+  }
+
+  /**
+   * @return the cached service points, or null if any of them isn't cached
+   */
+  public static List<JsonObject> getServicePoints(String okapiUrl, String tenant, Collection<String> ids) {
+    return getAll(SERVICE_POINTS, okapiUrl, tenant, ids);
+  }
+
+  /**
+   * @param servicePoints - service point records, each with an id
+   */
+  public static void putServicePoints(String okapiUrl, String tenant, JsonArray servicePoints) {
+    putAll(SERVICE_POINTS, okapiUrl, tenant, servicePoints);
+  }
+
+  /**
+   * Drop all cached records of the tenant, for example after reference data has been changed.
+   */
+  public static void invalidate(String okapiUrl, String tenant) {
+    String prefix = key(okapiUrl, tenant, "");
+    GROUPS.invalidateAll(key -> key.startsWith(prefix));
+    SERVICE_POINTS.invalidateAll(key -> key.startsWith(prefix));
+  }
+
+  public static void invalidateAll() {
+    GROUPS.invalidateAll();
+    SERVICE_POINTS.invalidateAll();
+  }
+
+  /**
+   * @return hit and miss metrics of the patron group and service point caches
+   */
+  public static JsonObject metrics() {
+    return new JsonObject()
+      .put("groups", GROUPS.metrics())
+      .put("servicePoints", SERVICE_POINTS.metrics());
+  }
+
+  private static List<JsonObject> getAll(TtlCache<String, JsonObject> cache,
+      String okapiUrl, String tenant, Collection<String> ids) {
+
+    if (ids.isEmpty() || !isEnabled()) {
+      return null;
+    }
+    List<JsonObject> records = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      JsonObject cached = cache.get(key(okapiUrl, tenant, id));
+      if (cached == null) {
+        return null;
+      }
+      records.add(cached.copy());
+    }
+    return records;
+  }
+
+  private static void putAll(TtlCache<String, JsonObject> cache,
+      String okapiUrl, String tenant, JsonArray records) {
+
+    if (records == null || !isEnabled()) {
+      return;
+    }
+    for (Object entry : records) {
+      if (entry instanceof JsonObject json && json.getString("id") != null) {
+        cache.put(key(okapiUrl, tenant, json.getString("id")), json.copy());
+      }
+    }
+  }
+
+  private static String key(String okapiUrl, String tenant, String id) {
+    return okapiUrl + "|" + tenant + "|" + id;
+  }
+}
@@ -1,18 +1,23 @@
 package org.folio.rest.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import io.vertx.core.Future;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.HttpResponse;
-
-
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -21,8 +26,10 @@ import org.apache.commons.lang3.StringUtils;
 public class RestUtil {
   public static class WrappedResponse {
     private int code;
+    private Buffer buffer;
     private String body;
     private JsonObject json;
+    private boolean jsonDecoded;
     private HttpResponse<Buffer> response;
 
     public WrappedResponse(int code, String body,
@@ -30,11 +37,17 @@ public class RestUtil {
       this.code = code;
       this.body = body;
       this.response = response;
-      try {
-        json = new JsonObject(body);
-      } catch (Exception e) {
-        json = null;
-      }
+    }
+
+    /**
+     * The body is kept as the raw buffer; it is only turned into a String or JSON
+     * when {@link #getBody()} or {@link #getJson()} is called.
+     */
+    public WrappedResponse(int code, Buffer buffer,
+                    HttpResponse<Buffer> response) {
+      this.code = code;
+      this.buffer = buffer;
+      this.response = response;
     }
 
     public int getCode() {
@@ -42,21 +55,102 @@ public class RestUtil {
     }
 
     public String getBody() {
+      if (body == null && buffer != null) {
+        body = buffer.toString();
+      }
       return body;
     }
 
+    public Buffer getBuffer() {
+      if (buffer == null && body != null) {
+        buffer = Buffer.buffer(body);
+      }
+      return buffer;
+    }
+
     public HttpResponse<Buffer> getResponse() {
       return response;
     }
 
     public JsonObject getJson() {
+      if (!jsonDecoded) {
+        jsonDecoded = true;
+        json = decodeJson();
+      }
       return json;
     }
+
+    /**
+     * Count-only mode: read the top-level {@code totalRecords} with a streaming parser,
+     * without building a {@link JsonObject} for the whole body.
+     *
+     * @return value of {@code totalRecords}, or null if the body has no such property
+     */
+    public Integer getTotalRecords() {
+      if (jsonDecoded && json != null) {
+        return json.getInteger(TOTAL_RECORDS);
+      }
+      return extractTotalRecords(getBuffer());
+    }
+
+    private JsonObject decodeJson() {
+      Buffer raw = getBuffer();
+      if (raw == null || raw.length() == 0) {
+        return null;
+      }
+      try {
+        return new JsonObject(raw);
+      } catch (Exception e) {
+        return null;
+      }
+    }
   }
 
+  private static final String TOTAL_RECORDS = "totalRecords";
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final AtomicInteger PENDING_REQUESTS = new AtomicInteger();
+  private static final Map<HttpClient, WebClient> WEB_CLIENT_CACHE = new ConcurrentHashMap<>();
+
   private RestUtil() {
   }
 
+  /**
+   * @return number of requests sent by {@link #doRequest} that have not been answered yet
+   */
+  public static int getPendingRequests() {
+    return PENDING_REQUESTS.get();
+  }
+
+  /**
+   * Stream over the top-level properties of a JSON object and return {@code totalRecords};
+   * nested objects and arrays like {@code resultInfo} are skipped without being parsed into a tree.
+   *
+   * @param body - response body
+   * @return value of {@code totalRecords}, or null if absent or the body is empty
+   * @throws DecodeException if the body is not a JSON object
+   */
+  public static Integer extractTotalRecords(Buffer body) {
+    if (body == null || body.length() == 0) {
+      return null;
+    }
+    try (JsonParser parser = JSON_FACTORY.createParser(body.getBytes())) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new DecodeException("Expected a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.currentName();
+        JsonToken value = parser.nextToken();
+        if (TOTAL_RECORDS.equals(name) && value == JsonToken.VALUE_NUMBER_INT) {
+          return parser.getIntValue();
+        }
+        parser.skipChildren();
+      }
+      return null;
+    } catch (IOException e) {
+      throw new DecodeException("Failed to decode totalRecords: " + e.getMessage(), e);
+    }
+  }
+
   /**
    * Create http request
    *
@@ -70,7 +164,7 @@ public class RestUtil {
   public static Future<WrappedResponse> doRequest(HttpClient client, String url,
     HttpMethod method, MultiMap headers, String payload) {
 
-    WebClient webClient = WebClient.wrap(client);
+    WebClient webClient = WEB_CLIENT_CACHE.computeIfAbsent(client, WebClient::wrap);
 
     Promise<WrappedResponse> promise = Promise.promise();
 
@@ -88,10 +182,12 @@ public class RestUtil {
 
     var buffer = StringUtils.isEmpty(payload) ? null : Buffer.buffer(payload);
 
-    Future<HttpResponse<Buffer>> response = request.sendBuffer(buffer);
+    PENDING_REQUESTS.incrementAndGet();
+    Future<HttpResponse<Buffer>> response = request.sendBuffer(buffer)
+      .onComplete(x -> PENDING_REQUESTS.decrementAndGet());
 
     response.onSuccess(res -> {
-      WrappedResponse wr = new WrappedResponse(res.statusCode(), res.bodyAsString(), res);
+      WrappedResponse wr = new WrappedResponse(res.statusCode(), res.body(), res);
       promise.complete(wr);
     });
     response.onFailure(promise::fail);
@@ -0,0 +1,113 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.json.JsonObject;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.folio.dbschema.ObjectMapperTool;
+import org.folio.rest.jaxrs.model.CompositeUser;
+
+/**
+ * Composite users assembled by {@code /bl-users/login} and {@code /bl-users/login-with-expiry},
+ * served to the {@code /bl-users/_self} request the UI sends right after login.
+ *
+ * <p>Entries are keyed by a hash of the issued access token, the includes and the expand flag.
+ * An entry is served for at most {@code ttlMillis} and never after the token's {@code exp}, so
+ * it never outlives the token it was issued with. A TTL of 0 disables the cache.
+ */
+public class SelfResponseCache {
+
+  private static final ObjectMapper MAPPER = ObjectMapperTool.getMapper();
+  private static final SelfResponseCache INSTANCE = new SelfResponseCache(
+    getEnvOrDefault("self-response.cache.max-size", "SELF_RESPONSE_CACHE_MAX_SIZE", 1_000, Integer::parseInt),
+    getEnvOrDefault("self-response.cache.ttl", "SELF_RESPONSE_CACHE_TTL", 10_000L, Long::parseLong),
+    System::currentTimeMillis);
+
+  private final long ttlMillis;
+  private final LongSupplier clock;
+  private final TtlCache<String, Entry> entries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  SelfResponseCache(int maxSize, long ttlMillis, LongSupplier clock) {
+    this.ttlMillis = ttlMillis;
+    this.clock = clock;
+    this.entries = new TtlCache<>(maxSize, ttlMillis, clock);
+  }
+
+  /**
+   * @return the cache configured by {@code SELF_RESPONSE_CACHE_TTL} and {@code SELF_RESPONSE_CACHE_MAX_SIZE}
+   */
+  public static SelfResponseCache getInstance() {
+    return INSTANCE;
+  }
+
+  public boolean isEnabled() {
+    return ttlMillis > 0;
+  }
+
+  /**
+   * @param token       - access token
+   * @param include     - includes, their order doesn't matter
+   * @param expandPerms - whether permissions are expanded
+   * @return cache key of the composite user
+   */
+  public static String key(String token, List<String> include, boolean expandPerms) {
+    return TokenClaims.hash(token) + '|' + String.join(",", new TreeSet<>(include)) + '|' + expandPerms;
+  }
+
+  /**
+   * @param key       - cache key, see {@link #key}
+   * @param user      - composite user
+   * @param expiresAt - epoch milliseconds the access token expires at
+   * @throws JsonProcessingException if the composite user can't be serialized
+   */
+  public void put(String key, CompositeUser user, long expiresAt) throws JsonProcessingException {
+    if (!isEnabled() || expiresAt <= clock.getAsLong()) {
+      return;
+    }
+    entries.put(key, new Entry(MAPPER.writeValueAsString(user), expiresAt));
+  }
+
+  /**
+   * @param key - cache key, see {@link #key}
+   * @return JSON of the composite user, or null if there is none or it has expired
+   */
+  public String get(String key) {
+    if (!isEnabled()) {
+      return null;
+    }
+    Entry entry = entries.get(key);
+    if (entry == null || entry.expiresAt <= clock.getAsLong()) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return entry.json;
+  }
+
+  public void invalidateAll() {
+    entries.invalidateAll();
+  }
+
+  /**
+   * @return number of cached composite users, hits, misses and the ratio of hits to lookups
+   */
+  public JsonObject metrics() {
+    long hitCount = hits.get();
+    long lookups = hitCount + misses.get();
+    return new JsonObject()
+      .put("size", entries.metrics().getInteger("size"))
+      .put("hits", hitCount)
+      .put("misses", lookups - hitCount)
+      .put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+  }
+
+  private record Entry(String json, long expiresAt) {
+  }
+}
@@ -0,0 +1,140 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Claims of the payload of JWT access tokens.
+ *
+ * <p>Every open UI tab polls {@code /bl-users/_self} with the same token, so the claims of recent
+ * tokens are kept in a small LRU keyed by a SHA-256 hash of the token. An entry is dropped once
+ * the token's {@code exp} has passed, so claims never outlive their token. The payload is found
+ * by scanning for the dots of the token and decoded from base64url or base64.
+ */
+public class TokenClaims {
+
+  private static final TokenClaims INSTANCE = new TokenClaims(
+    getEnvOrDefault("token-claims.cache.max-size", "TOKEN_CLAIMS_CACHE_MAX_SIZE", 1_000, Integer::parseInt),
+    System::currentTimeMillis);
+
+  private final LongSupplier clock;
+  private final Map<String, Entry> entries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  TokenClaims(int maxSize, LongSupplier clock) {
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * @return the claims cache configured by {@code TOKEN_CLAIMS_CACHE_MAX_SIZE}
+   */
+  public static TokenClaims getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * @param token - JWT access token, may be null
+   * @return copy of the claims of the token, null if the token is null or has no payload part
+   * @throws IllegalArgumentException if the payload isn't base64 encoded
+   * @throws io.vertx.core.json.DecodeException if the payload isn't a JSON object
+   */
+  public JsonObject get(String token) {
+    if (token == null) {
+      return null;
+    }
+    String key = hash(token);
+    long now = clock.getAsLong();
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      if (entry != null && now < entry.expires) {
+        hits.incrementAndGet();
+        return entry.claims.copy();
+      }
+      if (entry != null) {
+        entries.remove(key);
+      }
+    }
+    misses.incrementAndGet();
+    JsonObject claims = decode(token);
+    if (claims == null) {
+      return null;
+    }
+    Long exp = claims.getValue("exp") instanceof Number number ? number.longValue() : null;
+    long expires = exp == null ? Long.MAX_VALUE : exp * 1000;
+    if (now < expires) {
+      synchronized (entries) {
+        entries.put(key, new Entry(claims, expires));
+      }
+    }
+    return claims.copy();
+  }
+
+  public void invalidateAll() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * @return number of cached tokens, hits and misses
+   */
+  public JsonObject metrics() {
+    int size;
+    synchronized (entries) {
+      size = entries.size();
+    }
+    return new JsonObject()
+      .put("size", size)
+      .put("hits", hits.get())
+      .put("misses", misses.get());
+  }
+
+  /**
+   * Decode the payload part of a token without caching.
+   *
+   * @param token - JWT access token
+   * @return claims of the token, null if the token has no payload part
+   */
+  public static JsonObject decode(String token) {
+    int start = token.indexOf('.');
+    if (start < 0) {
+      return null;
+    }
+    int end = token.indexOf('.', start + 1);
+    if (end < 0 || token.indexOf('.', end + 1) >= 0) {
+      return null;
+    }
+    byte[] payload = new byte[end - start - 1];
+    for (int i = start + 1; i < end; i++) {
+      char c = token.charAt(i);
+      //accept both the base64url alphabet of JWTs and the base64 alphabet
+      payload[i - start - 1] = (byte) (c == '-' ? '+' : c == '_' ? '/' : c);
+    }
+    return new JsonObject(Buffer.buffer(Base64.getDecoder().decode(payload)));
+  }
+
+  /**
+   * @param token - token, may be null
+   * @return hex SHA-256 hash of the token, empty for null
+   */
+  public static String hash(String token) {
+    return Fingerprints.of(token);
+  }
+
+  private record Entry(JsonObject claims, long expires) {
+  }
+}
@@ -0,0 +1,119 @@
+package org.folio.rest.util;
+
+import io.vertx.core.json.JsonObject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Size- and time-bounded in-memory cache.
+ *
+ * <p>Entries expire {@code ttlMillis} after they have been put. When the cache is full the least
+ * recently used entry is dropped. All methods are thread-safe.
+ *
+ * @param <K> - type of the keys
+ * @param <V> - type of the values
+ */
+public class TtlCache<K, V> {
+
+  private final long ttlMillis;
+  private final LongSupplier clock;
+  private final Map<K, Entry<V>> entries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public TtlCache(int maxSize, long ttlMillis) {
+    this(maxSize, ttlMillis, System::currentTimeMillis);
+  }
+
+  TtlCache(int maxSize, long ttlMillis, LongSupplier clock) {
+    this.ttlMillis = ttlMillis;
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * @param key - key
+   * @return cached value, or null if there is none or it has expired
+   */
+  public V get(K key) {
+    synchronized (entries) {
+      Entry<V> entry = entries.get(key);
+      if (entry == null) {
+        misses.incrementAndGet();
+        return null;
+      }
+      if (clock.getAsLong() - entry.created >= ttlMillis) {
+        entries.remove(key);
+        misses.incrementAndGet();
+        return null;
+      }
+      hits.incrementAndGet();
+      return entry.value;
+    }
+  }
+
+  public void put(K key, V value) {
+    if (key == null || value == null) {
+      return;
+    }
+    synchronized (entries) {
+      entries.put(key, new Entry<>(value, clock.getAsLong()));
+    }
+  }
+
+  /**
+   * Drop all expired entries, they are otherwise only dropped when read or when the cache is full.
+   */
+  public void removeExpired() {
+    synchronized (entries) {
+      long now = clock.getAsLong();
+      entries.values().removeIf(entry -> now - entry.created >= ttlMillis);
+    }
+  }
+
+  public void invalidate(K key) {
+    synchronized (entries) {
+      entries.remove(key);
+    }
+  }
+
+  /**
+   * @param keyFilter - keys of the entries to drop
+   */
+  public void invalidateAll(Predicate<K> keyFilter) {
+    synchronized (entries) {
+      entries.keySet().removeIf(keyFilter);
+    }
+  }
+
+  public void invalidateAll() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * @return snapshot of the cache: number of entries, hits and misses
+   */
+  public JsonObject metrics() {
+    int size;
+    synchronized (entries) {
+      size = entries.size();
+    }
+    return new JsonObject()
+      .put("size", size)
+      .put("hits", hits.get())
+      .put("misses", misses.get());
+  }
+
+  private record Entry<V>(V value, long created) {
+  }
+}
@@ -0,0 +1,105 @@
+package org.folio.rest.util;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.tools.client.BuildCQL;
+import org.folio.rest.tools.client.Response;
+import org.folio.rest.tools.client.interfaces.HttpClientInterface;
+
+/**
+ * De-duplicates identical upstream GET requests within one incoming request.
+ *
+ * <p>An instance lives as long as the incoming request that created it. The first caller of a
+ * request sends it, later callers of the same request share the in-flight future. Chained
+ * requests are identical when they are chained onto the same source future with the same
+ * template and CQL mapping; each caller's check of the source response still runs.
+ */
+@SuppressWarnings("java:S1874")
+public class UpstreamRequestMemo {
+
+  private static final Logger LOG = LogManager.getLogger(UpstreamRequestMemo.class);
+
+  private final HttpClientInterface client;
+  private final Map<String, CompletableFuture<Response>> requests = new HashMap<>();
+  private final Map<CompletableFuture<Response>, Map<String, CompletableFuture<Response>>> chainedRequests =
+    new IdentityHashMap<>();
+  private final AtomicInteger saved = new AtomicInteger();
+
+  public UpstreamRequestMemo(HttpClientInterface client) {
+    this.client = client;
+  }
+
+  /**
+   * @param url     - url relative to the Okapi URL
+   * @param headers - request headers
+   * @return response of the only GET request sent to the url within this memo
+   */
+  public CompletableFuture<Response> get(String url, Map<String, String> headers) throws Exception {
+    synchronized (this) {
+      CompletableFuture<Response> inFlight = requests.get(url);
+      if (inFlight != null) {
+        saved.incrementAndGet();
+        return inFlight;
+      }
+      inFlight = client.request(url, headers);
+      requests.put(url, inFlight);
+      return inFlight;
+    }
+  }
+
+  /**
+   * GET request built from the source response once it completes, see
+   * {@link HttpClientInterface#chainedRequest(String, Map, BuildCQL, Consumer)}.
+   *
+   * @param source    - response the request is built from
+   * @param template  - url template
+   * @param headers   - request headers
+   * @param cqlPath   - path of the values in the source response for the CQL query, null for none
+   * @param cqlField  - field name of the CQL query
+   * @param check     - check of the source response
+   * @return response of the only identical chained request within this memo
+   */
+  public CompletableFuture<Response> chained(CompletableFuture<Response> source, String template,
+      Map<String, String> headers, String cqlPath, String cqlField, Consumer<Response> check) {
+
+    String key = template + "|" + cqlPath + "|" + cqlField;
+    synchronized (this) {
+      Map<String, CompletableFuture<Response>> bySource =
+        chainedRequests.computeIfAbsent(source, k -> new HashMap<>());
+      CompletableFuture<Response> inFlight = bySource.get(key);
+      if (inFlight != null) {
+        saved.incrementAndGet();
+        return source.thenCombine(inFlight, (sourceResponse, response) -> {
+          check.accept(sourceResponse);
+          return response;
+        });
+      }
+      BuildCQL cql = cqlPath == null ? null : new BuildCQL(null, cqlPath, cqlField);
+      inFlight = source.thenCompose(client.chainedRequest(template, headers, cql, check));
+      bySource.put(key, inFlight);
+      return inFlight;
+    }
+  }
+
+  /**
+   * @return number of upstream calls saved so far
+   */
+  public int getSaved() {
+    return saved.get();
+  }
+
+  /**
+   * Log the number of saved upstream calls at debug level.
+   *
+   * @param name - name of the incoming request
+   */
+  public void logSaved(String name) {
+    LOG.debug("logSaved:: {} upstream call(s) saved by de-duplication in {}", saved.get(), name);
+  }
+}
@@ -0,0 +1,73 @@
+package org.folio.rest.util;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Projection of {@code /users} records to the user summaries of {@code GET /bl-users/summaries}.
+ *
+ * <p>Summaries are copied field by field from the user JSON, without converting the users to
+ * POJOs, and only carry what list screens show.
+ */
+public final class UserSummaries {
+
+  private static final String[] USER_FIELDS = {"id", "username", "barcode", "active", "patronGroup"};
+  private static final String[] PERSONAL_FIELDS = {"lastName", "firstName", "middleName", "preferredFirstName"};
+
+  private UserSummaries() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * @param users  - users collection of {@code /users}
+   * @param groups - patron groups of the users
+   * @return user summary collection
+   */
+  public static JsonObject project(JsonObject users, JsonArray groups) {
+    Map<String, String> groupNames = new HashMap<>();
+    if (groups != null) {
+      for (Object entry : groups) {
+        if (entry instanceof JsonObject group && group.getString("id") != null) {
+          groupNames.put(group.getString("id"), group.getString("group"));
+        }
+      }
+    }
+    JsonArray records = users.getJsonArray("users", new JsonArray());
+    JsonArray summaries = new JsonArray(new ArrayList<>(records.size()));
+    for (Object entry : records) {
+      if (entry instanceof JsonObject user) {
+        summaries.add(summary(user, groupNames));
+      }
+    }
+    Integer totalRecords = users.getInteger("totalRecords");
+    return new JsonObject()
+      .put("userSummaries", summaries)
+      .put("totalRecords", totalRecords == null ? summaries.size() : totalRecords);
+  }
+
+  private static JsonObject summary(JsonObject user, Map<String, String> groupNames) {
+    JsonObject summary = new JsonObject();
+    copy(user, summary, USER_FIELDS);
+    JsonObject personal = user.getJsonObject("personal");
+    if (personal != null) {
+      copy(personal, summary, PERSONAL_FIELDS);
+    }
+    String groupName = groupNames.get(user.getString("patronGroup"));
+    if (groupName != null) {
+      summary.put("patronGroupName", groupName);
+    }
+    return summary;
+  }
+
+  private static void copy(JsonObject from, JsonObject to, String[] fields) {
+    for (String field : fields) {
+      Object value = from.getValue(field);
+      if (value != null) {
+        to.put(field, value);
+      }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package org.folio.rest.util;
+
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Pattern;
+import org.folio.util.StringUtil;
+
+/**
+ * Opaque keyset paging cursor of {@code GET /bl-users}.
+ *
+ * <p>Pages are sorted by id. A cursor holds the id of the last user of the previous page, and the
+ * next page is the users with a greater id, so fetching a page costs the same at any depth.
+ */
+public final class UsersCursor {
+
+  /**
+   * Cursor of the first page.
+   */
+  public static final String FIRST = "*";
+
+  private static final Pattern SORT_BY = Pattern.compile("\\bsortby\\b", Pattern.CASE_INSENSITIVE);
+
+  private UsersCursor() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * @param query  - CQL query of the request, null for all users
+   * @param cursor - {@link #FIRST} or the next cursor of the previous page
+   * @return CQL query of the page
+   * @throws IllegalArgumentException if the cursor is invalid or the query contains sortBy
+   */
+  public static String query(String query, String cursor) {
+    if (query != null && SORT_BY.matcher(maskQuoted(query)).find()) {
+      throw new IllegalArgumentException("cursor paging sorts by id, the query must not contain sortBy");
+    }
+    String keyset = FIRST.equals(cursor) ? null : "id > " + StringUtil.cqlEncode(decode(cursor));
+    String filter;
+    if (query == null || query.isBlank()) {
+      filter = keyset == null ? "cql.allRecords=1" : keyset;
+    } else {
+      filter = keyset == null ? "(" + query + ")" : "(" + query + ") and " + keyset;
+    }
+    return filter + " sortBy id";
+  }
+
+  /**
+   * @param cql - CQL query
+   * @return the query with the characters of its quoted strings replaced by {@code _}, so that
+   * search terms don't match CQL keywords; positions are unchanged
+   */
+  static String maskQuoted(String cql) {
+    char[] masked = cql.toCharArray();
+    boolean quoted = false;
+    for (int i = 0; i < masked.length; i++) {
+      char c = masked[i];
+      if (!quoted) {
+        quoted = c == '"';
+        continue;
+      }
+      if (c == '"') {
+        quoted = false;
+        continue;
+      }
+      masked[i] = '_';
+      if (c == '\\' && i + 1 < masked.length) {
+        masked[++i] = '_';
+      }
+    }
+    return new String(masked);
+  }
+
+  /**
+   * @param users - users of the page
+   * @param limit - limit of the page
+   * @return cursor of the next page, null if this is the last page
+   */
+  public static String next(JsonArray users, int limit) {
+    if (users == null || users.isEmpty() || users.size() < limit) {
+      return null;
+    }
+    String lastId = users.getJsonObject(users.size() - 1).getString("id");
+    if (lastId == null) {
+      return null;
+    }
+    return Base64.getUrlEncoder().withoutPadding()
+      .encodeToString(new JsonObject().put("id", lastId).encode().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decode(String cursor) {
+    try {
+      String id = new JsonObject(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8))
+        .getString("id");
+      if (id != null) {
+        return id;
+      }
+    } catch (IllegalArgumentException | DecodeException | ClassCastException e) {
+      // fall through
+    }
+    throw new IllegalArgumentException("Invalid cursor: " + cursor);
+  }
+}
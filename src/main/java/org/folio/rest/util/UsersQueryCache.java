@@ -0,0 +1,212 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import javax.ws.rs.core.Response;
+
+/**
+ * Short-lived cache of {@code GET /bl-users} list responses.
+ *
+ * <p>Typeahead and paging screens send the same list query many times within a few seconds.
+ * A 200 response is served from the cache for {@code ttlMillis}, and identical queries that
+ * arrive while the first one is in flight wait for its response instead of querying again.
+ * Queries are keyed by Okapi URL, tenant, a hash of the caller's token, the normalized CQL and
+ * all other parameters, so a response is only ever served to the caller that may see it.
+ * Responses larger than {@code maxResponseSize} characters are not cached, expired responses are
+ * swept once per TTL. A cached page doesn't show changes made within the TTL, so the cache is
+ * disabled by default; a TTL of 0 disables it.
+ */
+public class UsersQueryCache {
+
+  private static final UsersQueryCache INSTANCE = new UsersQueryCache(
+    getEnvOrDefault("users-query.cache.max-size", "USERS_QUERY_CACHE_MAX_SIZE", 1_000, Integer::parseInt),
+    getEnvOrDefault("users-query.cache.ttl", "USERS_QUERY_CACHE_TTL", 0L, Long::parseLong),
+    getEnvOrDefault("users-query.cache.max-response-size", "USERS_QUERY_CACHE_MAX_RESPONSE_SIZE",
+      262_144, Integer::parseInt),
+    System::currentTimeMillis);
+
+  private final long ttlMillis;
+  private final int maxResponseSize;
+  private final LongSupplier clock;
+  private final TtlCache<String, Response> responses;
+  private final AtomicLong lastSweep = new AtomicLong();
+  private final Map<String, List<Handler<AsyncResult<Response>>>> inFlight = new HashMap<>();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  UsersQueryCache(int maxSize, long ttlMillis, int maxResponseSize, LongSupplier clock) {
+    this.ttlMillis = ttlMillis;
+    this.maxResponseSize = maxResponseSize;
+    this.clock = clock;
+    this.lastSweep.set(clock.getAsLong());
+    this.responses = new TtlCache<>(maxSize, ttlMillis, clock);
+  }
+
+  /**
+   * @return the cache configured by {@code USERS_QUERY_CACHE_TTL}, {@code USERS_QUERY_CACHE_MAX_SIZE}
+   * and {@code USERS_QUERY_CACHE_MAX_RESPONSE_SIZE}
+   */
+  public static UsersQueryCache getInstance() {
+    return INSTANCE;
+  }
+
+  public boolean isEnabled() {
+    return ttlMillis > 0;
+  }
+
+  /**
+   * @param okapiUrl - Okapi URL
+   * @param tenant   - tenant id
+   * @param token    - token of the caller, null for none
+   * @param query    - CQL query, null for none
+   * @param include  - includes, their order doesn't matter
+   * @param params   - all other parameters of the request
+   * @return cache key of the request
+   */
+  public static String key(String okapiUrl, String tenant, String token, String query,
+      List<String> include, Object... params) {
+
+    StringBuilder key = new StringBuilder()
+      .append(okapiUrl).append('|').append(tenant).append('|').append(TokenClaims.hash(token)).append('|')
+      .append(include == null ? "" : String.join(",", new TreeSet<>(include)));
+    for (Object param : params) {
+      key.append('|').append(param);
+    }
+    return key.append('|').append(normalize(query)).toString();
+  }
+
+  /**
+   * Serve the response from the cache, from an identical request in flight, or from the loader.
+   *
+   * @param key     - cache key, see {@link #key}
+   * @param loader  - produces the response, it calls the handler it is given once; if it throws,
+   *                  all requests waiting for the response fail
+   * @param handler - handler of the response
+   */
+  public void get(String key, Consumer<Handler<AsyncResult<Response>>> loader,
+      Handler<AsyncResult<Response>> handler) {
+
+    if (!isEnabled()) {
+      loader.accept(handler);
+      return;
+    }
+    Response cached;
+    synchronized (inFlight) {
+      List<Handler<AsyncResult<Response>>> waiting = inFlight.get(key);
+      if (waiting != null) {
+        coalesced.incrementAndGet();
+        waiting.add(handler);
+        return;
+      }
+      cached = responses.get(key);
+      if (cached == null) {
+        waiting = new ArrayList<>(1);
+        waiting.add(handler);
+        inFlight.put(key, waiting);
+      }
+    }
+    if (cached != null) {
+      //respond outside of the lock, writing the response must not block other list requests
+      handler.handle(Future.succeededFuture(Response.fromResponse(cached).build()));
+      return;
+    }
+    AtomicBoolean done = new AtomicBoolean();
+    Handler<AsyncResult<Response>> complete = result -> {
+      if (done.getAndSet(true)) {
+        return;
+      }
+      List<Handler<AsyncResult<Response>>> waiting;
+      synchronized (inFlight) {
+        if (result.succeeded() && isCacheable(result.result())) {
+          sweep();
+          responses.put(key, result.result());
+        }
+        waiting = inFlight.remove(key);
+      }
+      for (int i = 0; i < waiting.size(); i++) {
+        waiting.get(i).handle(i == 0 || result.failed()
+          ? result : Future.succeededFuture(Response.fromResponse(result.result()).build()));
+      }
+    };
+    try {
+      loader.accept(complete);
+    } catch (RuntimeException e) {
+      //don't leave the key in flight, the waiting requests would never be answered
+      complete.handle(Future.failedFuture(e));
+    }
+  }
+
+  public void invalidateAll() {
+    responses.invalidateAll();
+  }
+
+  private boolean isCacheable(Response response) {
+    return response.getStatus() == 200
+      && response.getEntity() instanceof String entity && entity.length() <= maxResponseSize;
+  }
+
+  private void sweep() {
+    long now = clock.getAsLong();
+    long last = lastSweep.get();
+    if (now - last >= ttlMillis && lastSweep.compareAndSet(last, now)) {
+      responses.removeExpired();
+    }
+  }
+
+  /**
+   * @return number of cached responses, hits, misses, coalesced requests and queries in flight
+   */
+  public JsonObject metrics() {
+    int queriesInFlight;
+    synchronized (inFlight) {
+      queriesInFlight = inFlight.size();
+    }
+    return responses.metrics()
+      .put("coalesced", coalesced.get())
+      .put("inFlight", queriesInFlight);
+  }
+
+  /**
+   * Collapse whitespace outside of quoted strings and trim.
+   */
+  static String normalize(String cql) {
+    if (cql == null) {
+      return "";
+    }
+    StringBuilder normalized = new StringBuilder(cql.length());
+    boolean quoted = false;
+    boolean escaped = false;
+    boolean space = false;
+    for (char c : cql.strip().toCharArray()) {
+      if (!quoted && Character.isWhitespace(c)) {
+        space = true;
+        continue;
+      }
+      if (space) {
+        normalized.append(' ');
+        space = false;
+      }
+      normalized.append(c);
+      if (escaped) {
+        escaped = false;
+      } else if (c == '\\') {
+        escaped = true;
+      } else if (c == '"') {
+        quoted = !quoted;
+      }
+    }
+    return normalized.toString();
+  }
+}
@@ -0,0 +1,78 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Split of a large {@code /users} page into sub-pages that are fetched in parallel.
+ *
+ * <p>Each sub-page covers at most {@code USERS_SUBPAGE_SIZE} users. The joins of a sub-page start
+ * as soon as it has arrived, and the sub-pages are reassembled in order. Separate offset queries
+ * only line up if the users are sorted by a unique key, so a page is only split if its query ends
+ * with a sortBy on id, as cursor queries do; other fields such as username are optional and may be
+ * missing. A size of 0 disables the split.
+ */
+public final class UsersSubPages {
+
+  private static final int SIZE = getEnvOrDefault(
+    "users.subpage.size", "USERS_SUBPAGE_SIZE", 1_000, Integer::parseInt);
+  private static final Pattern SORT_BY = Pattern.compile("\\bsortby\\s+(.*)$",
+    Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  private UsersSubPages() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * Offset and limit of a sub-page.
+   */
+  public record Range(int offset, int limit) {
+  }
+
+  /**
+   * @param query  - CQL query of the page, null for none
+   * @param offset - offset of the page
+   * @param limit  - limit of the page
+   * @return sub-pages of at most {@code USERS_SUBPAGE_SIZE} users, in order; the page itself if
+   * the query doesn't sort by id
+   */
+  public static List<Range> split(String query, int offset, int limit) {
+    return split(offset, limit, hasUniqueOrder(query) ? SIZE : 0);
+  }
+
+  static List<Range> split(int offset, int limit, int size) {
+    if (size <= 0 || limit <= size) {
+      return List.of(new Range(offset, limit));
+    }
+    List<Range> ranges = new ArrayList<>(limit / size + 1);
+    for (int start = 0; start < limit; start += size) {
+      ranges.add(new Range(offset + start, Math.min(size, limit - start)));
+    }
+    return ranges;
+  }
+
+  /**
+   * @return whether the last sort key of the query is id, so that the order is total
+   */
+  static boolean hasUniqueOrder(String query) {
+    if (query == null) {
+      return false;
+    }
+    Matcher matcher = SORT_BY.matcher(UsersCursor.maskQuoted(query));
+    if (!matcher.find()) {
+      return false;
+    }
+    String[] keys = query.substring(matcher.start(1)).strip().split("\\s+");
+    String lastKey = keys[keys.length - 1];
+    int modifiers = lastKey.indexOf('/');
+    if (modifiers >= 0) {
+      lastKey = lastKey.substring(0, modifiers);
+    }
+    return "id".equals(lastKey.replace("\"", "").toLowerCase(Locale.ROOT));
+  }
+}
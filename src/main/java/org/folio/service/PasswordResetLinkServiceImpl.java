@@ -5,17 +5,14 @@ import static org.folio.service.PasswordResetSetting.FORGOT_PASSWORD_UI_PATH;
 import static org.folio.service.PasswordResetSetting.RESET_PASSWORD_UI_PATH;
 
 import io.vertx.core.Future;
-import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.rest.client.AuthTokenClient;
-import org.folio.rest.client.ConfigurationClient;
 import org.folio.rest.client.NotificationClient;
 import org.folio.rest.client.PasswordResetActionClient;
-import org.folio.rest.client.SettingsClient;
 import org.folio.rest.client.UserModuleClient;
 import org.folio.rest.exception.UnprocessableEntityException;
 import org.folio.rest.exception.UnprocessableEntityMessage;
@@ -25,15 +22,15 @@ import org.folio.rest.jaxrs.model.Notification;
 import org.folio.rest.jaxrs.model.PasswordResetAction;
 import org.folio.rest.jaxrs.model.User;
 import org.folio.rest.util.OkapiConnectionParams;
+import org.folio.rest.util.TokenClaims;
+import org.folio.service.config.TenantConfigurationService;
 import org.folio.service.password.UserPasswordService;
 
 import javax.xml.ws.Holder;
 import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
-import java.util.EnumMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -43,7 +40,6 @@ public class PasswordResetLinkServiceImpl implements PasswordResetLinkService {
 
   private static final Logger LOG = LogManager.getLogger(PasswordResetLinkServiceImpl.class);
 
-  private static final String MODULE_NAME = "USERSBL";
   private static final String UNDEFINED_USER_NAME = "UNDEFINED_USER__RESET_PASSWORD_";
   private static final String FOLIO_HOST_DEFAULT = "http://localhost:3000";
   private static final String CREATE_PASSWORD_EVENT_CONFIG_NAME = "CREATE_PASSWORD_EVENT";//NOSONAR
@@ -55,8 +51,7 @@ public class PasswordResetLinkServiceImpl implements PasswordResetLinkService {
   private static final String LINK_EXPIRED_STATUS_CODE = "link.expired";
   private static final String LINK_USED_STATUS_CODE = "link.used";
 
-  private ConfigurationClient configurationClient;
-  private SettingsClient settingsClient;
+  private TenantConfigurationService tenantConfigurationService;
   private AuthTokenClient authTokenClient;
   private NotificationClient notificationClient;
   private PasswordResetActionClient passwordResetActionClient;
@@ -65,11 +60,10 @@ public class PasswordResetLinkServiceImpl implements PasswordResetLinkService {
   private String resetPasswordUIPathDefault;
   private String forgotPasswordUIPathDefault;
 
-  public PasswordResetLinkServiceImpl(ConfigurationClient configurationClient, SettingsClient settingsClient, AuthTokenClient authTokenClient,
+  public PasswordResetLinkServiceImpl(TenantConfigurationService tenantConfigurationService, AuthTokenClient authTokenClient,
                                       NotificationClient notificationClient, PasswordResetActionClient passwordResetActionClient,
                                       UserModuleClient userModuleClient, UserPasswordService userPasswordService) {
-    this.configurationClient = configurationClient;
-    this.settingsClient = settingsClient;
+    this.tenantConfigurationService = tenantConfigurationService;
     this.authTokenClient = authTokenClient;
     this.notificationClient = notificationClient;
     this.passwordResetActionClient = passwordResetActionClient;
@@ -87,7 +81,7 @@ public class PasswordResetLinkServiceImpl implements PasswordResetLinkService {
     Holder<String> tokenHolder = new Holder<>();
     Holder<String> linkHolder = new Holder<>();
 
-    return getPasswordResetConfiguration(connectionParams)
+    return tenantConfigurationService.getPasswordResetConfiguration(connectionParams)
       .compose(configurations -> {
         configMapHolder.value = configurations;
         if (StringUtils.isBlank(user.getUsername())) {
@@ -103,28 +97,6 @@ public class PasswordResetLinkServiceImpl implements PasswordResetLinkService {
       .map(v -> linkHolder.value);
   }
 
-  private Future<Map<PasswordResetSetting, String>> getPasswordResetConfiguration(OkapiConnectionParams connectionParams) {
-    return settingsClient.getBaseUrl(connectionParams)
-      .compose(baseUrl -> settingsClient.lookupPasswordResetSettings(connectionParams)
-        .map(settings -> {
-          settings.put(FOLIO_HOST, baseUrl);
-          return settings;
-        })
-        .recover(err -> {
-          LOG.info("getPasswordResetConfiguration:: password reset settings not found in mod-settings: {} {}",
-            err.getClass().getSimpleName(), err.getMessage());
-          Map<PasswordResetSetting, String> config = new EnumMap<>(PasswordResetSetting.class);
-          config.put(FOLIO_HOST, baseUrl);
-          return Future.succeededFuture(config);
-        })
-      )
-      .recover(err -> {
-        LOG.info("getPasswordResetConfiguration:: base URL not found in mod-settings, falling back to mod-configuration: {} {}",
-          err.getClass().getSimpleName(), err.getMessage());
-        return configurationClient.lookupConfigByModuleName(MODULE_NAME, connectionParams);
-      });
-  }
-
   @Override
   public Future<String> sendPasswordResetLink(String userId, Map<String, String> okapiHeaders) {
     OkapiConnectionParams connectionParams = new OkapiConnectionParams(okapiHeaders);
@@ -187,8 +159,11 @@ public class PasswordResetLinkServiceImpl implements PasswordResetLinkService {
   public Future<Boolean> isPasswordExists(String userId, String token, Holder<String> tokenHolder, OkapiConnectionParams connectionParams, Holder<String> passwordResetActionIdHolder) {
     LOG.info("isPasswordExists:: PasswordResetAction details. UserId {}, PasswordResetActionId {}", userId,passwordResetActionIdHolder.value);
     tokenHolder.value = token;
-    JsonObject payload = new JsonObject(Buffer.buffer(Base64.getDecoder().decode(token.split("\\.")[1])));
-    Long exp = payload.getLong("exp");
+    JsonObject payload = TokenClaims.getInstance().get(token);
+    Long exp = payload == null ? null : payload.getLong("exp");
+    if (exp == null) {
+      return invalidTokenFailure();
+    }
     Date expirationDate = new Date(exp * 1000);
     PasswordResetAction actionToCreate = new PasswordResetAction()
       .withId(passwordResetActionIdHolder.value)
@@ -295,16 +270,23 @@ public class PasswordResetLinkServiceImpl implements PasswordResetLinkService {
 
   private Future<String> getPasswordResetActionId(OkapiConnectionParams okapiConnectionParams) {
     String token = okapiConnectionParams.getToken();
-    JsonObject payload = new JsonObject(Buffer.buffer(Base64.getDecoder().decode(token.split("\\.")[1])));
-    String tokenSub = payload.getString("sub");
-    if (!tokenSub.startsWith(UNDEFINED_USER_NAME)) {
-      UnprocessableEntityMessage message = new UnprocessableEntityMessage(LINK_INVALID_STATUS_CODE,
-        "Invalid token.");
-      return Future.failedFuture(new UnprocessableEntityException(Collections.singletonList(message)));
+    JsonObject payload = TokenClaims.getInstance().get(token);
+    String tokenSub = payload == null ? null : payload.getString("sub");
+    if (tokenSub == null || !tokenSub.startsWith(UNDEFINED_USER_NAME)) {
+      return invalidTokenFailure();
     }
     return Future.succeededFuture(tokenSub.substring(UNDEFINED_USER_NAME.length()));
   }
 
+  /**
+   * @return failure for a token that isn't a JWT or lacks the claims of a password reset link
+   */
+  private static <T> Future<T> invalidTokenFailure() {
+    UnprocessableEntityMessage message = new UnprocessableEntityMessage(LINK_INVALID_STATUS_CODE,
+      "Invalid token.");
+    return Future.failedFuture(new UnprocessableEntityException(Collections.singletonList(message)));
+  }
+
   private Function<PasswordResetAction, Future<PasswordResetAction>> checkPasswordResetActionExpirationTime(
     String passwordResetActionId) {
     return pwdResetAction -> {
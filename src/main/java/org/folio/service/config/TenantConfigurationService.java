@@ -0,0 +1,32 @@
+package org.folio.service.config;
+
+import io.vertx.core.Future;
+import org.folio.rest.util.OkapiConnectionParams;
+import org.folio.service.PasswordResetSetting;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for the tenant configuration used by the forgotten password, forgotten username
+ * and password reset link endpoints
+ */
+public interface TenantConfigurationService {
+
+  /**
+   * Looks up the user fields configured for the locate user aliases
+   *
+   * @param fieldAliasList        list of aliases to use [LOCATE_USER_USERNAME LOCATE_USER_PHONE_NUMBER LOCATE_USER_EMAIL]
+   * @param okapiConnectionParams connection params
+   * @return future with the configured user fields, empty if none of the aliases is configured
+   */
+  Future<List<String>> getLocateUserFields(List<String> fieldAliasList, OkapiConnectionParams okapiConnectionParams);
+
+  /**
+   * Looks up the password reset settings in mod-settings, falls back to mod-configuration
+   *
+   * @param okapiConnectionParams connection params
+   * @return future with the password reset settings
+   */
+  Future<Map<PasswordResetSetting, String>> getPasswordResetConfiguration(OkapiConnectionParams okapiConnectionParams);
+}
@@ -0,0 +1,257 @@
+package org.folio.service.config;
+
+import static org.folio.rest.impl.BLUsersAPI.LOCATE_USER_EMAIL;
+import static org.folio.rest.impl.BLUsersAPI.LOCATE_USER_MOBILE_PHONE_NUMBER;
+import static org.folio.rest.impl.BLUsersAPI.LOCATE_USER_PHONE_NUMBER;
+import static org.folio.rest.impl.BLUsersAPI.LOCATE_USER_USERNAME;
+import static org.folio.rest.util.EnvUtils.getEnvOrDefault;
+import static org.folio.service.PasswordResetSetting.FOLIO_HOST;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.json.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.client.ConfigurationClient;
+import org.folio.rest.client.SettingsClient;
+import org.folio.rest.client.impl.ConfigurationClientImpl;
+import org.folio.rest.client.impl.SettingsClientImpl;
+import org.folio.rest.jaxrs.model.Config;
+import org.folio.rest.util.HttpClientUtil;
+import org.folio.rest.util.OkapiConnectionParams;
+import org.folio.service.PasswordResetSetting;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Serves the tenant configuration from a per-tenant snapshot.
+ *
+ * <p>A snapshot is loaded on first use. The first caller after {@code TENANT_CONFIG_REFRESH_INTERVAL}
+ * milliseconds is still served the snapshot and refreshes it in the background with its own
+ * connection params, so a refresh never uses the token of an earlier caller. A failed load is never
+ * kept, a failed refresh keeps the previous snapshot. A snapshot that is older than two intervals is
+ * loaded again by the next caller, one that hasn't been used for {@code TENANT_CONFIG_IDLE_TIMEOUT}
+ * milliseconds is dropped. An interval of 0 disables the snapshots.
+ */
+public class TenantConfigurationServiceImpl implements TenantConfigurationService {
+
+  private static final Logger LOG = LogManager.getLogger(TenantConfigurationServiceImpl.class);
+
+  private static final String MODULE_NAME = "USERSBL";
+  private static final String LOCATE_USER_FIELDS = "locateUserFields";
+  private static final String PASSWORD_RESET = "passwordReset";
+  private static final List<String> LOCATE_USER_ALIASES = List.of(LOCATE_USER_USERNAME,
+    LOCATE_USER_PHONE_NUMBER, LOCATE_USER_MOBILE_PHONE_NUMBER, LOCATE_USER_EMAIL);
+  private static final Map<Vertx, TenantConfigurationServiceImpl> INSTANCES = new ConcurrentHashMap<>();
+
+  private final Vertx vertx;
+  private final ConfigurationClient configurationClient;
+  private final SettingsClient settingsClient;
+  private final long refreshIntervalMillis;
+  private final long idleTimeoutMillis;
+  private final LongSupplier clock;
+  private final Map<String, Snapshot<?>> snapshots = new ConcurrentHashMap<>();
+  private final AtomicBoolean timerStarted = new AtomicBoolean();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong loads = new AtomicLong();
+  private final AtomicLong refreshes = new AtomicLong();
+
+  TenantConfigurationServiceImpl(Vertx vertx, ConfigurationClient configurationClient, SettingsClient settingsClient,
+                                 long refreshIntervalMillis, long idleTimeoutMillis, LongSupplier clock) {
+    this.vertx = vertx;
+    this.configurationClient = configurationClient;
+    this.settingsClient = settingsClient;
+    this.refreshIntervalMillis = refreshIntervalMillis;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.clock = clock;
+  }
+
+  /**
+   * @return the service shared by all requests of the Vert.x instance, configured by
+   * {@code TENANT_CONFIG_REFRESH_INTERVAL} and {@code TENANT_CONFIG_IDLE_TIMEOUT}
+   */
+  public static TenantConfigurationServiceImpl getInstance(Vertx vertx) {
+    return INSTANCES.computeIfAbsent(vertx, v -> {
+      HttpClient httpClient = HttpClientUtil.getInstance(v);
+      return new TenantConfigurationServiceImpl(v,
+        new ConfigurationClientImpl(httpClient),
+        new SettingsClientImpl(httpClient),
+        getEnvOrDefault("tenant-config.refresh-interval", "TENANT_CONFIG_REFRESH_INTERVAL", 60_000L, Long::parseLong),
+        getEnvOrDefault("tenant-config.idle-timeout", "TENANT_CONFIG_IDLE_TIMEOUT", 600_000L, Long::parseLong),
+        System::currentTimeMillis);
+    });
+  }
+
+  @Override
+  public Future<List<String>> getLocateUserFields(List<String> fieldAliasList,
+                                                  OkapiConnectionParams okapiConnectionParams) {
+    return get(LOCATE_USER_FIELDS, okapiConnectionParams, this::loadLocateUserConfigs)
+      .map(configs -> configs.stream()
+        .filter(config -> fieldAliasList.contains(config.getCode()))
+        .map(Config::getValue)
+        .flatMap(s -> Stream.of(s.split("[^\\w\\.]+")))
+        .toList());
+  }
+
+  @Override
+  public Future<Map<PasswordResetSetting, String>> getPasswordResetConfiguration(
+    OkapiConnectionParams okapiConnectionParams) {
+
+    return get(PASSWORD_RESET, okapiConnectionParams, this::loadPasswordResetConfiguration);
+  }
+
+  /**
+   * @return number of snapshots, hits, loads and background refreshes
+   */
+  public JsonObject metrics() {
+    return new JsonObject()
+      .put("size", snapshots.size())
+      .put("hits", hits.get())
+      .put("loads", loads.get())
+      .put("refreshes", refreshes.get());
+  }
+
+  private Future<List<Config>> loadLocateUserConfigs(OkapiConnectionParams connectionParams) {
+    String query = new StringBuilder("module==").append(MODULE_NAME).append(" AND (")
+      .append(LOCATE_USER_ALIASES.stream()
+        .map(f -> "code==\"" + f + "\"")
+        .collect(Collectors.joining(" or ")))
+      .append(")")
+      .toString();
+    return configurationClient.lookupConfigsByQuery(query, LOCATE_USER_ALIASES.size(), connectionParams)
+      .map(configurations -> List.copyOf(configurations.getConfigs()));
+  }
+
+  private Future<Map<PasswordResetSetting, String>> loadPasswordResetConfiguration(
+    OkapiConnectionParams connectionParams) {
+
+    return settingsClient.getBaseUrl(connectionParams)
+      .compose(baseUrl -> settingsClient.lookupPasswordResetSettings(connectionParams)
+        .map(settings -> {
+          settings.put(FOLIO_HOST, baseUrl);
+          return settings;
+        })
+        .recover(err -> {
+          LOG.info("getPasswordResetConfiguration:: password reset settings not found in mod-settings: {} {}",
+            err.getClass().getSimpleName(), err.getMessage());
+          Map<PasswordResetSetting, String> config = new EnumMap<>(PasswordResetSetting.class);
+          config.put(FOLIO_HOST, baseUrl);
+          return Future.succeededFuture(config);
+        })
+      )
+      .recover(err -> {
+        LOG.info("getPasswordResetConfiguration:: base URL not found in mod-settings, falling back to mod-configuration: {} {}",
+          err.getClass().getSimpleName(), err.getMessage());
+        return configurationClient.lookupConfigByModuleName(MODULE_NAME, connectionParams);
+      })
+      .map(Map::copyOf);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Future<T> get(String name, OkapiConnectionParams connectionParams,
+                            Function<OkapiConnectionParams, Future<T>> loader) {
+
+    if (refreshIntervalMillis <= 0) {
+      return loader.apply(connectionParams);
+    }
+    startIdleTimer();
+    String key = connectionParams.getOkapiUrl() + "|" + connectionParams.getTenantId() + "|" + name;
+    Snapshot<T> snapshot = (Snapshot<T>) snapshots.computeIfAbsent(key, k -> new Snapshot<>(loader));
+    long now = clock.getAsLong();
+    snapshot.lastUsed = now;
+    Future<T> value;
+    boolean refresh = false;
+    synchronized (snapshot) {
+      boolean expired = snapshot.loaded > 0 && now - snapshot.loaded >= 2 * refreshIntervalMillis;
+      if (snapshot.value == null || expired) {
+        loads.incrementAndGet();
+        value = load(snapshot, connectionParams);
+      } else {
+        hits.incrementAndGet();
+        value = snapshot.value;
+        if (snapshot.loaded > 0 && now - snapshot.loaded >= refreshIntervalMillis && !snapshot.refreshing) {
+          snapshot.refreshing = true;
+          refresh = true;
+        }
+      }
+    }
+    if (refresh) {
+      refresh(key, snapshot, connectionParams);
+    }
+    return value;
+  }
+
+  private <T> Future<T> load(Snapshot<T> snapshot, OkapiConnectionParams connectionParams) {
+    Future<T> future = snapshot.loader.apply(connectionParams);
+    snapshot.value = future;
+    snapshot.loaded = 0;
+    future.onComplete(ar -> {
+      synchronized (snapshot) {
+        if (snapshot.value != future) {
+          return;
+        }
+        if (ar.succeeded()) {
+          snapshot.loaded = clock.getAsLong();
+        } else {
+          snapshot.value = null;
+        }
+      }
+    });
+    return future;
+  }
+
+  private void startIdleTimer() {
+    if (timerStarted.compareAndSet(false, true)) {
+      vertx.setPeriodic(refreshIntervalMillis, id -> dropIdleSnapshots());
+    }
+  }
+
+  void dropIdleSnapshots() {
+    long now = clock.getAsLong();
+    snapshots.entrySet().removeIf(entry -> now - entry.getValue().lastUsed >= idleTimeoutMillis);
+  }
+
+  private <T> void refresh(String key, Snapshot<T> snapshot, OkapiConnectionParams connectionParams) {
+    refreshes.incrementAndGet();
+    Future<T> future;
+    try {
+      future = snapshot.loader.apply(connectionParams);
+    } catch (Exception e) {
+      future = Future.failedFuture(e);
+    }
+    future.onComplete(ar -> {
+      synchronized (snapshot) {
+        snapshot.refreshing = false;
+        if (ar.succeeded()) {
+          snapshot.value = Future.succeededFuture(ar.result());
+          snapshot.loaded = clock.getAsLong();
+        }
+      }
+      if (ar.failed()) {
+        LOG.warn("refresh:: failed to refresh {}: {}", key, ar.cause().getMessage());
+      }
+    });
+  }
+
+  private static final class Snapshot<T> {
+    private final Function<OkapiConnectionParams, Future<T>> loader;
+    private volatile long lastUsed;
+    private Future<T> value;
+    private long loaded;
+    private boolean refreshing;
+
+    private Snapshot(Function<OkapiConnectionParams, Future<T>> loader) {
+      this.loader = loader;
+    }
+  }
+}
@@ -14,6 +14,7 @@ import org.folio.HttpStatus;
 import org.folio.rest.impl.BLUsersAPI;
 import org.folio.rest.tools.client.test.HttpClientMock2;
 import org.folio.rest.tools.utils.NetworkUtils;
+import org.folio.rest.util.SelfResponseCache;
 import org.folio.util.PercentCodec;
 import org.folio.util.StringUtil;
 import org.junit.AfterClass;
@@ -26,12 +27,16 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
 
 import static io.restassured.RestAssured.given;
 import static org.folio.rest.MockOkapi.getToken;
 import static org.folio.rest.MockOkapi.getTokenWithoutUserId;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
@@ -64,6 +69,7 @@ public class BLUsersAPITest {
 
   @BeforeClass
   public static void before(TestContext context) {
+    System.setProperty("users.subpage.size", "2");
     vertx = Vertx.vertx();
     vertx.exceptionHandler(context.exceptionHandler());
 
@@ -286,6 +292,7 @@ public class BLUsersAPITest {
 
   @AfterClass
   public static void after(TestContext context) {
+    System.clearProperty("users.subpage.size");
     vertx.close().onComplete(context.asyncAssertSuccess());
   }
 
@@ -323,6 +330,71 @@ public class BLUsersAPITest {
         statusCode(200);
   }
 
+  @Test
+  public void getBlUsersSelfConditional(TestContext context) {
+    Header header = new Header(RestVerticle.OKAPI_HEADER_TOKEN, getToken(USER_ID, "maxi", "diku"));
+    var response = given().
+        spec(okapi).port(port).header(header).
+      when().
+        get("/bl-users/_self").
+      then().
+        statusCode(200).
+        body("permissions.permissions", notNullValue()).
+        extract();
+    String etag = response.header("ETag");
+    String fingerprint = response.path("permissionsFingerprint");
+    assertNotNull(etag);
+    assertNotNull(fingerprint);
+
+    given().
+        spec(okapi).port(port).header(header).header("If-None-Match", etag).
+      when().
+        get("/bl-users/_self").
+      then().
+        statusCode(304);
+
+    given().
+        spec(okapi).port(port).header(header).
+      when().
+        get("/bl-users/_self?permissionsFingerprint=" + fingerprint).
+      then().
+        statusCode(200).
+        body("permissionsFingerprint", equalTo(fingerprint),
+             "permissions.permissions", nullValue());
+  }
+
+  @Test
+  public void getBlUsersSelfAfterLogin(TestContext context) {
+    String uncached = given().
+        spec(okapi).port(port).header(new Header(RestVerticle.OKAPI_HEADER_TOKEN, getToken(USER_ID, "maxi", "diku"))).
+      when().
+        get("/bl-users/_self").
+      then().
+        statusCode(200).
+        extract().asString();
+
+    String token = given().
+        spec(okapi).port(port).contentType("application/json").
+        body(new JsonObject().put("username", "maxi").put("userId", USER_ID).put("password", "secret").encode()).
+      when().
+        post("/bl-users/login").
+      then().
+        statusCode(201).
+        extract().header("x-okapi-token");
+
+    long hits = SelfResponseCache.getInstance().metrics().getLong("hits");
+    String cached = given().
+        spec(okapi).port(port).header(new Header(RestVerticle.OKAPI_HEADER_TOKEN, token)).
+      when().
+        get("/bl-users/_self").
+      then().
+        statusCode(200).
+        extract().asString();
+
+    assertEquals(hits + 1, (long) SelfResponseCache.getInstance().metrics().getLong("hits"));
+    assertEquals(new JsonObject(uncached), new JsonObject(cached));
+  }
+
   @Test
   public void getBlUsersSelfWithoutToken(TestContext context) {
     Header header = new Header(RestVerticle.OKAPI_HEADER_TOKEN, "");
@@ -390,6 +462,67 @@ public class BLUsersAPITest {
            "compositeUsers[0].users.username", equalTo("quo\"te"));
   }
 
+  @Test
+  public void getBlUsersSortedPageIsSplit(TestContext context) {
+    String query = "patronGroup==b4b5e97a-0a99-4db9-97df-4fdf406ec74d";
+    List<String> unsplit = given().
+      spec(okapi).port(port).
+    when().
+      get("/bl-users?limit=5&query=" + StringUtil.urlEncode(query)).
+    then().
+      statusCode(200).
+      extract().path("compositeUsers.users.username");
+    //sub-pages of 2 users
+    List<String> split = given().
+      spec(okapi).port(port).
+    when().
+      get("/bl-users?limit=5&query=" + StringUtil.urlEncode(query + " sortBy id")).
+    then().
+      statusCode(200).
+      extract().path("compositeUsers.users.username");
+    context.assertTrue(unsplit.size() > 2, "more than one sub-page: " + unsplit);
+    context.assertEquals(unsplit, split);
+    context.assertEquals(split.size(), new HashSet<>(split).size(), "no duplicates: " + split);
+  }
+
+  @Test
+  public void getBlUsersCountOnly(TestContext context) {
+    given().
+      spec(okapi).port(port).
+    when().
+      get("/bl-users?countOnly=true&query=" + StringUtil.urlEncode("username==minni OR username==maxi")).
+    then().
+      statusCode(200).
+      body("totalResults", equalTo(1),
+           "compositeUsers.size()", equalTo(0));
+  }
+
+  @Test
+  public void getBlUsersSummaries(TestContext context) {
+    String query = StringUtil.urlEncode("username==maxi");
+    String summaries = given().
+      spec(okapi).port(port).
+    when().
+      get("/bl-users/summaries?query=" + query).
+    then().
+      statusCode(200).
+      body("totalRecords", equalTo(1),
+           "userSummaries[0].username", equalTo("maxi"),
+           "userSummaries[0].active", equalTo(true),
+           "userSummaries[0].patronGroupName", equalTo("staff")).
+      extract().asString();
+
+    String compositeUsers = given().
+      spec(okapi).port(port).
+    when().
+      get("/bl-users?query=" + query).
+    then().
+      statusCode(200).
+      extract().asString();
+    context.assertTrue(summaries.length() < compositeUsers.length(),
+      "summary payload " + summaries.length() + " < composite payload " + compositeUsers.length());
+  }
+
   @Test
   public void postBlUsersForgottenPassword(TestContext context) {
     given().
@@ -707,6 +840,23 @@ public class BLUsersAPITest {
       .statusCode(HttpStatus.SC_UNPROCESSABLE_CONTENT);
   }
 
+  @Test
+  public void postPasswordResetWithNonJwtToken() {
+    given()
+      .spec(okapi)
+      .header(new Header("x-okapi-user-id", "77604a02-666c-44b6-b238-e81f379f1e77"))
+      .header(new Header("x-okapi-token", "header.payload"))
+      .port(port)
+      .body(new JsonObject()
+        .put("newPassword", "1q2w3E!190").encode())
+      .accept("text/plain")
+      .contentType("application/json")
+      .when()
+      .post("/bl-users/password-reset/reset")
+      .then()
+      .statusCode(HttpStatus.SC_UNPROCESSABLE_CONTENT);
+  }
+
   @Test
   public void postPasswordResetInvalidPassword() {
     given()
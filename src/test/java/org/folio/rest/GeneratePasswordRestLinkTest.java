@@ -78,6 +78,8 @@ public class GeneratePasswordRestLinkTest {
 
   @BeforeClass
   public static void setUp(TestContext context) {
+    // every test stubs its own password reset configuration
+    System.setProperty("tenant-config.refresh-interval", "0");
     vertx = Vertx.vertx();
     port = NetworkUtils.nextFreePort();
     DeploymentOptions options = new DeploymentOptions()
@@ -99,6 +101,7 @@ public class GeneratePasswordRestLinkTest {
 
   @AfterClass
   public static void tearDown(TestContext context) {
+    System.clearProperty("tenant-config.refresh-interval");
     vertx.close().onComplete(context.asyncAssertSuccess());
   }
 
@@ -270,7 +270,7 @@ public class HeadersForwardingTest {
     WireMock.verify(1, getRequestedFor(urlPathEqualTo("/users"))
       .withQueryParam("query", equalTo("username==\"" + USERNAME + "\"")));
 
-    WireMock.verify(2, getRequestedFor(urlPathEqualTo("/perms/users"))
+    WireMock.verify(1, getRequestedFor(urlPathEqualTo("/perms/users"))
       .withQueryParam("query", equalTo("userId==" + USER_ID)));
 
     WireMock.verify(1, getRequestedFor(urlPathTemplate("/perms/users/{userid}/permissions")));
@@ -68,6 +68,7 @@ public class MockOkapi extends AbstractVerticle {
   private static final String ACCOUNTS_ENDPOINT = "/accounts";
   private static final String MANUAL_BLOCKS_ENDPOINT = "/manualblocks";
   static final String SETTINGS_ENTRIES_ENDPOINT = "/settings/entries";
+  private static final String LOGIN_ENDPOINT = "/authn/login";
 
   @Override
   public void start(Promise<Void> future) {
@@ -76,6 +77,7 @@ public class MockOkapi extends AbstractVerticle {
     HttpServer server = vertx.createHttpServer();
 
     router.route("/*").handler(BodyHandler.create());
+    router.post(LOGIN_ENDPOINT).handler(this::handleLogin);
     router.route("/*").handler(this::handleRequest);
     System.out.println("Running MockOkapi on port " + port);
     server.requestHandler(router).listen(port)
@@ -231,6 +233,26 @@ public class MockOkapi extends AbstractVerticle {
     }
   }
 
+  /**
+   * Legacy login: accepts any password and issues a token for the username and userId of the
+   * credentials. The token has an iat claim, so it differs from the tokens of {@link #getToken}.
+   */
+  private void handleLogin(RoutingContext context) {
+    JsonObject credentials = context.body().asJsonObject();
+    String payload = new JsonObject()
+      .put("user_id", credentials.getString("userId"))
+      .put("sub", credentials.getString("username"))
+      .put("tenant", "diku")
+      .put("iat", System.currentTimeMillis() / 1000)
+      .toString();
+    String token = "header." + Base64.getEncoder().encodeToString(payload.getBytes()) + ".verify";
+    context.response()
+      .setStatusCode(201)
+      .putHeader("x-okapi-token", token)
+      .putHeader("Content-Type", "application/json")
+      .end(new JsonObject().put("username", credentials.getString("username")).encode());
+  }
+
   private MockResponse handleUsers(HttpMethod method, String id, String url,
           String payload, RoutingContext context) throws CQLParseException {
     int code = 200;
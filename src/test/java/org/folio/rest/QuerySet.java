@@ -7,6 +7,7 @@ import org.z3950.zing.cql.CQLNode;
 import org.z3950.zing.cql.CQLOrNode;
 import org.z3950.zing.cql.CQLParseException;
 import org.z3950.zing.cql.CQLParser;
+import org.z3950.zing.cql.CQLSortNode;
 import org.z3950.zing.cql.CQLTermNode;
 
 /**
@@ -76,6 +77,9 @@ public class QuerySet {
       }
       querySet.setLeft(populateQuerySet(new QuerySet(), booleanNode.getLeftOperand()));
       querySet.setRight(populateQuerySet(new QuerySet(), booleanNode.getRightOperand()));
+    } else if(node instanceof CQLSortNode) {
+      //records are returned in insertion order, which is a stable order for any sort key
+      return populateQuerySet(querySet, ((CQLSortNode)node).getSubtree());
     }
     return querySet;
   }
@@ -0,0 +1,51 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.vertx.core.Vertx;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AssemblyExecutorTest {
+
+  private final Vertx vertx = Vertx.vertx();
+  private final AssemblyExecutor executor =
+    new AssemblyExecutor(vertx.createSharedWorkerExecutor("assembly-executor-test", 1), 2);
+
+  @AfterEach
+  void close() {
+    vertx.close();
+  }
+
+  @Test
+  void smallWorkRunsOnTheCallingThread() throws Exception {
+    var thread = executor.execute(1, Thread::currentThread)
+      .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+    assertSame(Thread.currentThread(), thread);
+    assertEquals(1, executor.metrics().getLong("inline"));
+    assertEquals(0, executor.metrics().getLong("offloaded"));
+  }
+
+  @Test
+  void largeWorkIsOffloaded() throws Exception {
+    var thread = executor.execute(2, Thread::currentThread)
+      .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+    assertNotEquals(Thread.currentThread(), thread);
+    assertEquals(1, executor.metrics().getLong("offloaded"));
+    assertEquals(0, executor.metrics().getInteger("queueDepth"));
+  }
+
+  @Test
+  void failure() {
+    var future = executor.execute(1, () -> {
+      throw new IllegalStateException("boom");
+    });
+
+    assertEquals("boom", future.cause().getMessage());
+  }
+}
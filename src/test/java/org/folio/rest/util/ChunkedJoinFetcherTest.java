@@ -0,0 +1,98 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.folio.rest.tools.client.Response;
+import org.folio.rest.tools.client.interfaces.HttpClientInterface;
+import org.folio.util.PercentCodec;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("java:S1874")
+class ChunkedJoinFetcherTest {
+
+  @Test
+  void keysAreDeduplicatedChunkedAndMerged() throws Exception {
+    var client = mock(HttpClientInterface.class);
+    var urls = new ArrayList<String>();
+    when(client.request(anyString(), anyMap())).thenAnswer(invocation -> {
+      urls.add(invocation.getArgument(0));
+      return CompletableFuture.completedFuture(response(200, "permissionUsers",
+        new JsonObject().put("userId", "u" + urls.size())));
+    });
+
+    var merged = new ChunkedJoinFetcher(2, 4).fetch(client, "/perms/users", "permissionUsers", "userId",
+      List.of("a", "b", "c", "a"), 1, Map.of()).get();
+
+    assertEquals(List.of(
+      "/perms/users?query=" + PercentCodec.encode("userId==\"a\" or userId==\"b\"") + "&limit=2",
+      "/perms/users?query=" + PercentCodec.encode("userId==\"c\"") + "&limit=1"), urls);
+    assertEquals(200, merged.getCode());
+    assertEquals(2, merged.getBody().getJsonArray("permissionUsers").size());
+    assertEquals(2, merged.getBody().getInteger("totalRecords"));
+  }
+
+  @Test
+  void concurrencyIsCapped() throws Exception {
+    var client = mock(HttpClientInterface.class);
+    var pending = new ArrayList<CompletableFuture<Response>>();
+    when(client.request(anyString(), anyMap())).thenAnswer(invocation -> {
+      var future = new CompletableFuture<Response>();
+      pending.add(future);
+      return future;
+    });
+
+    var merged = new ChunkedJoinFetcher(1, 2).fetch(client, "/proxiesfor", "proxiesFor", "userId",
+      List.of("a", "b", "c"), 10, Map.of());
+
+    verify(client, times(2)).request(anyString(), anyMap());
+    pending.get(0).complete(response(200, "proxiesFor", new JsonObject().put("id", "p1")));
+    verify(client, times(3)).request(anyString(), anyMap());
+    pending.get(1).complete(response(200, "proxiesFor", new JsonObject().put("id", "p2")));
+    pending.get(2).complete(response(200, "proxiesFor"));
+    assertEquals(2, merged.get().getBody().getJsonArray("proxiesFor").size());
+  }
+
+  @Test
+  void failedChunkIsReturnedAndStopsTheRemainingChunks() throws Exception {
+    var client = mock(HttpClientInterface.class);
+    when(client.request(anyString(), anyMap()))
+      .thenReturn(CompletableFuture.completedFuture(response(500, "usergroups")));
+
+    var merged = new ChunkedJoinFetcher(1, 1).fetch(client, "/groups", "usergroups", "id",
+      List.of("g1", "g2", "g3"), 1, Map.of()).get();
+
+    assertEquals(500, merged.getCode());
+    verify(client, times(1)).request(anyString(), anyMap());
+  }
+
+  @Test
+  void noKeys() throws Exception {
+    var client = mock(HttpClientInterface.class);
+
+    var merged = new ChunkedJoinFetcher(50, 4).fetch(client, "/groups", "usergroups", "id",
+      List.of(), 1, Map.of()).get();
+
+    assertTrue(merged.getBody().getJsonArray("usergroups").isEmpty());
+    verify(client, times(0)).request(anyString(), anyMap());
+  }
+
+  private static Response response(int code, String collection, JsonObject... records) {
+    var response = new Response();
+    response.setCode(code);
+    response.setBody(new JsonObject().put(collection, new JsonArray(List.of((Object[]) records))));
+    return response;
+  }
+}
@@ -0,0 +1,111 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.List;
+import java.util.Map;
+import org.folio.rest.jaxrs.model.ProxiesFor;
+import org.folio.rest.jaxrs.model.ServicePoint;
+import org.junit.jupiter.api.Test;
+
+class CompositeUserAssemblerTest {
+
+  private static final JsonArray USERS = new JsonArray()
+    .add(new JsonObject().put("id", "u1").put("username", "maxi").put("patronGroup", "g1"))
+    .add(new JsonObject().put("id", "u2").put("username", "joe").put("patronGroup", "g2"))
+    .add(new JsonObject().put("id", "u3").put("username", "ann"));
+
+  @Test
+  void joinsIncludesOnTheirKeys() {
+    var groups = new JsonArray()
+      .add(new JsonObject().put("id", "g1").put("group", "staff")
+        .put("metadata", new JsonObject().put("createdByUserId", "u0")));
+    var permissionUsers = new JsonArray()
+      .add(new JsonObject().put("userId", "u2").put("permissions", new JsonArray().add("a").add("b")));
+    var proxiesFor = new JsonArray()
+      .add(new JsonObject().put("id", "p1").put("userId", "u1").put("proxyUserId", "u2"))
+      .add(new JsonObject().put("id", "p2").put("userId", "u1").put("proxyUserId", "u3"));
+
+    var compositeUsers = CompositeUserAssembler.assemble(USERS, groups, permissionUsers, proxiesFor);
+
+    assertEquals(3, compositeUsers.size());
+    var maxi = compositeUsers.get(0);
+    assertEquals("maxi", ((Map<?, ?>) maxi.getAdditionalProperties().get("users")).get("username"));
+    var group = (Map<?, ?>) maxi.getAdditionalProperties().get("groups");
+    assertEquals("staff", group.get("group"));
+    assertEquals(Map.of("createdByUserId", "u0"), group.get("metadata"));
+    assertNull(maxi.getPermissions());
+    assertEquals(List.of("p1", "p2"), maxi.getProxiesFor().stream().map(ProxiesFor::getId).toList());
+
+    var joe = compositeUsers.get(1);
+    assertNull(joe.getAdditionalProperties().get("groups"));
+    assertEquals(List.of("a", "b"), joe.getPermissions().getPermissions());
+    assertTrue(joe.getProxiesFor() == null || joe.getProxiesFor().isEmpty());
+  }
+
+  @Test
+  void includesThatAreNotRequestedAreLeftOut() {
+    var compositeUsers = CompositeUserAssembler.assemble(USERS, null, null, null);
+
+    assertEquals(3, compositeUsers.size());
+    assertEquals(Map.of("id", "u3", "username", "ann"),
+      compositeUsers.get(2).getAdditionalProperties().get("users"));
+    assertNull(compositeUsers.get(0).getAdditionalProperties().get("groups"));
+  }
+
+  @Test
+  void joinsServicePointsUsersWithTheirServicePoints() {
+    var servicePointsUsers = new JsonArray()
+      .add(new JsonObject().put("id", "spu1").put("userId", "u1").put("defaultServicePointId", "sp2")
+        .put("servicePointsIds", new JsonArray().add("sp1").add("sp2")));
+    var servicePoints = new JsonArray()
+      .add(new JsonObject().put("id", "sp1").put("name", "Circ desk 1"))
+      .add(new JsonObject().put("id", "sp2").put("name", "Circ desk 2"));
+
+    var assembler = new CompositeUserAssembler(null, null, null, servicePointsUsers, servicePoints, null, false);
+
+    var servicePointsUser = assembler.assemble(USERS.getJsonObject(0)).getServicePointsUser();
+    assertEquals("spu1", servicePointsUser.getId());
+    assertEquals(List.of("sp2", "sp1"),
+      servicePointsUser.getServicePoints().stream().map(ServicePoint::getId).toList());
+    assertNull(assembler.assemble(USERS.getJsonObject(1)).getServicePointsUser());
+  }
+
+  @Test
+  void expandsPermissionsWithTheirSubPermissions() {
+    var permissionUsers = new JsonArray()
+      .add(new JsonObject().put("userId", "u1").put("permissions", new JsonArray().add("all").add("c")));
+    var permissions = new JsonArray()
+      .add(new JsonObject().put("permissionName", "all").put("subPermissions", new JsonArray().add("a").add("b")))
+      .add(new JsonObject().put("permissionName", "a").put("subPermissions", new JsonArray().add("c").add("all")))
+      .add(new JsonObject().put("permissionName", "b"));
+
+    var assembler = new CompositeUserAssembler(null, permissionUsers, null, null, null, permissions, false);
+
+    assertEquals(List.of(Map.of("permissionName", "all"), Map.of("permissionName", "c"),
+        Map.of("permissionName", "a"), Map.of("permissionName", "b")),
+      assembler.assemble(USERS.getJsonObject(0)).getPermissions().getPermissions());
+  }
+
+  @Test
+  void expandsPermissionsWithTheirDefinitions() {
+    var permissionUsers = new JsonArray()
+      .add(new JsonObject().put("userId", "u1").put("permissions", new JsonArray().add("all").add("c")));
+    var permissions = new JsonArray()
+      .add(new JsonObject().put("permissionName", "all").put("displayName", "All")
+        .put("subPermissions", new JsonArray().add("b")))
+      .add(new JsonObject().put("permissionName", "b").put("displayName", "B"));
+
+    var assembler = new CompositeUserAssembler(null, permissionUsers, null, null, null, permissions, true);
+
+    assertEquals(List.of(
+        Map.of("permissionName", "all", "displayName", "All", "subPermissions", List.of("b")),
+        Map.of("permissionName", "c"),
+        Map.of("permissionName", "b", "displayName", "B")),
+      assembler.assemble(USERS.getJsonObject(0)).getPermissions().getPermissions());
+  }
+}
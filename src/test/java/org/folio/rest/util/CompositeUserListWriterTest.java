@@ -0,0 +1,62 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CompositeUserListWriterTest {
+
+  @Test
+  void writesOneCompositeUserPerUser() throws Exception {
+    var users = new JsonArray()
+      .add(new JsonObject().put("id", "u1").put("username", "maxi").put("patronGroup", "g1"))
+      .add(new JsonObject().put("id", "u2").put("username", "joe"));
+    var groups = new JsonArray().add(new JsonObject().put("id", "g1").put("group", "staff"));
+    var permissionUsers = new JsonArray()
+      .add(new JsonObject().put("userId", "u2").put("permissions", new JsonArray().add("a")));
+
+    var json = new JsonObject(CompositeUserListWriter.write(users,
+      new CompositeUserAssembler(groups, permissionUsers, null), null));
+
+    var compositeUsers = json.getJsonArray("compositeUsers");
+    assertEquals(2, compositeUsers.size());
+    assertEquals("maxi", compositeUsers.getJsonObject(0).getJsonObject("users").getString("username"));
+    assertEquals("staff", compositeUsers.getJsonObject(0).getJsonObject("groups").getString("group"));
+    assertNull(compositeUsers.getJsonObject(0).getValue("permissions"));
+    assertNull(json.getValue("nextCursor"));
+    assertEquals(new JsonArray().add("a"),
+      compositeUsers.getJsonObject(1).getJsonObject("permissions").getJsonArray("permissions"));
+  }
+
+  @Test
+  void emptyPageWithNextCursor() throws Exception {
+    var json = new JsonObject(CompositeUserListWriter.write(new JsonArray(),
+      new CompositeUserAssembler(null, null, null), "next"));
+
+    assertEquals(new JsonArray(), json.getJsonArray("compositeUsers"));
+    assertEquals("next", json.getString("nextCursor"));
+  }
+
+  @Test
+  void subPagesAreWrittenInOrder() throws Exception {
+    var groups = new JsonArray().add(new JsonObject().put("id", "g1").put("group", "staff"));
+    var first = new CompositeUserListWriter.Page(
+      new JsonArray().add(new JsonObject().put("id", "u1").put("patronGroup", "g1")),
+      new CompositeUserAssembler(groups, null, null));
+    var second = new CompositeUserListWriter.Page(
+      new JsonArray().add(new JsonObject().put("id", "u2")).add(new JsonObject().put("id", "u3")),
+      new CompositeUserAssembler(null, null, null));
+
+    var compositeUsers = new JsonObject(CompositeUserListWriter.write(List.of(first, second), null))
+      .getJsonArray("compositeUsers");
+
+    assertEquals(3, compositeUsers.size());
+    assertEquals("staff", compositeUsers.getJsonObject(0).getJsonObject("groups").getString("group"));
+    assertEquals("u2", compositeUsers.getJsonObject(1).getJsonObject("users").getString("id"));
+    assertEquals("u3", compositeUsers.getJsonObject(2).getJsonObject("users").getString("id"));
+  }
+}
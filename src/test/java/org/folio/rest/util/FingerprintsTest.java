@@ -0,0 +1,55 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class FingerprintsTest {
+
+  @Test
+  void of() {
+    assertEquals("", Fingerprints.of(null));
+    assertEquals("2c26b46b68ffc68ff99b453c1d30413413422d706483bfa0f98a5e886266e7ae", Fingerprints.of("foo"));
+  }
+
+  @Test
+  void ofPermissionsIgnoresOrderAndDuplicates() {
+    assertEquals(Fingerprints.ofPermissions(List.of("a", "b")),
+      Fingerprints.ofPermissions(List.of("b", "a", "b")));
+    assertNotEquals(Fingerprints.ofPermissions(List.of("a", "b")),
+      Fingerprints.ofPermissions(List.of("a", "b", "c")));
+  }
+
+  @Test
+  void ofPermissionsDistinguishesExpanded() {
+    var expanded = Fingerprints.ofPermissions(
+      List.of(Map.of("permissionName", "a"), Map.of("permissionName", "b")));
+    assertNotEquals(Fingerprints.ofPermissions(List.of("a", "b")), expanded);
+    assertEquals(expanded, Fingerprints.ofPermissions(
+      List.of(new JsonObject().put("permissionName", "b"), new JsonObject().put("permissionName", "a"))));
+  }
+
+  @Test
+  void ofPermissionsDistinguishesDefinitions() {
+    var before = Fingerprints.ofPermissions(List.of(
+      Map.of("permissionName", "a", "displayName", "A", "subPermissions", List.of("b"))));
+    assertEquals(before, Fingerprints.ofPermissions(List.of(new JsonObject()
+      .put("subPermissions", new JsonArray().add("b")).put("displayName", "A").put("permissionName", "a"))));
+    assertNotEquals(before, Fingerprints.ofPermissions(List.of(
+      Map.of("permissionName", "a", "displayName", "A", "subPermissions", List.of("b", "c")))));
+    assertNotEquals(before, Fingerprints.ofPermissions(List.of(
+      Map.of("permissionName", "a", "displayName", "All", "subPermissions", List.of("b")))));
+  }
+
+  @Test
+  void ofPermissionsNull() {
+    assertNull(Fingerprints.ofPermissions(null));
+    assertNotEquals(Fingerprints.of(""), Fingerprints.ofPermissions(List.of()));
+  }
+}
@@ -0,0 +1,33 @@
+package org.folio.rest.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import org.folio.okapi.testing.UtilityClassTester;
+import org.junit.Test;
+
+public class HttpClientPoolTest {
+
+  @Test
+  public void utilityClass() {
+    UtilityClassTester.assertUtilityClass(HttpClientPool.class);
+  }
+
+  @Test
+  public void acquireSharesClientPerOkapiUrlAndTenant() {
+    var lease1 = HttpClientPool.acquire("http://localhost:9130", "diku");
+    var lease2 = HttpClientPool.acquire("http://localhost:9130", "diku");
+    var lease3 = HttpClientPool.acquire("http://localhost:9130", "other");
+    assertThat(lease1.getClient(), is(lease2.getClient()));
+    assertThat(lease1.getClient(), is(not(lease3.getClient())));
+    int inUse = HttpClientPool.metrics().getInteger("inUse");
+    lease1.release();
+    lease1.release();
+    assertThat(HttpClientPool.metrics().getInteger("inUse"), is(inUse - 1));
+    lease2.release();
+    lease3.release();
+    assertThat(HttpClientPool.metrics().getInteger("inUse"), is(inUse - 3));
+  }
+
+}
@@ -0,0 +1,71 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.vertx.core.json.JsonObject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.folio.rest.tools.client.Response;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("java:S1874")
+class PermissionCacheTest {
+
+  private static final String URL = "/permissions/users/1";
+
+  private final AtomicLong now = new AtomicLong(1000);
+  private final AtomicInteger calls = new AtomicInteger();
+
+  private CompletableFuture<Response> load() {
+    var response = new Response();
+    response.setCode(200);
+    response.setBody(new JsonObject().put("call", calls.incrementAndGet()));
+    return CompletableFuture.completedFuture(response);
+  }
+
+  private int call(PermissionCache cache) throws Exception {
+    return cache.get("http://okapi", "diku", URL, this::load).get().getBody().getInteger("call");
+  }
+
+  @Test
+  void disabled() throws Exception {
+    var cache = new PermissionCache(10, 0, 1000, now::get);
+    assertEquals(1, call(cache));
+    assertEquals(2, call(cache));
+  }
+
+  @Test
+  void freshStaleAndExpired() throws Exception {
+    var cache = new PermissionCache(10, 100, 300, now::get);
+    assertEquals(1, call(cache));
+    assertEquals(1, call(cache));
+    // stale: the cached response is served and refreshed in the background
+    now.addAndGet(150);
+    assertEquals(1, call(cache));
+    assertEquals(2, calls.get());
+    assertEquals(2, call(cache));
+    // older than the maximum staleness: never served
+    now.addAndGet(300);
+    assertEquals(3, call(cache));
+    assertEquals(1, cache.metrics().getLong("refreshes"));
+    assertEquals(2, cache.metrics().getLong("misses"));
+  }
+
+  @Test
+  void failedResponseIsNotCached() throws Exception {
+    var cache = new PermissionCache(10, 100, 300, now::get);
+    var failed = new Response();
+    failed.setCode(500);
+    cache.get("http://okapi", "diku", URL, () -> CompletableFuture.completedFuture(failed)).get();
+    assertEquals(1, call(cache));
+  }
+
+  @Test
+  void invalidate() throws Exception {
+    var cache = new PermissionCache(10, 100, 300, now::get);
+    assertEquals(1, call(cache));
+    cache.invalidate("http://okapi", "diku");
+    assertEquals(2, call(cache));
+  }
+}
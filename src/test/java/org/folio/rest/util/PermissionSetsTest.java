@@ -0,0 +1,88 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.folio.dbschema.ObjectMapperTool;
+import org.folio.rest.jaxrs.model.CompositeUser;
+import org.folio.rest.jaxrs.model.Permissions;
+import org.junit.jupiter.api.Test;
+
+class PermissionSetsTest {
+
+  @Test
+  void identicalSetsShareOneList() {
+    var permissionSets = new PermissionSets(10);
+    var a = permissionSets.intern("diku", new ArrayList<>(List.of("a", "b")));
+    var b = permissionSets.intern("diku", new ArrayList<>(List.of("a", "b")));
+    assertSame(a, b);
+    assertEquals(List.of("a", "b"), b);
+    assertSame(a, permissionSets.intern("diku", a));
+    assertEquals(new JsonObject().put("size", 1).put("hits", 1L).put("misses", 1L), permissionSets.metrics());
+  }
+
+  @Test
+  void differentOrderIsNotShared() {
+    var permissionSets = new PermissionSets(10);
+    var a = permissionSets.intern("diku", List.of("a", "b"));
+    var b = permissionSets.intern("diku", List.of("b", "a"));
+    assertNotSame(a, b);
+    assertEquals(List.of("b", "a"), b);
+    assertEquals(a.fingerprint(), b.fingerprint());
+    assertSame(a, permissionSets.intern("diku", List.of("a", "b")));
+  }
+
+  @Test
+  void setsArePerTenant() {
+    var permissionSets = new PermissionSets(10);
+    assertNotSame(permissionSets.intern("diku", List.of("a")), permissionSets.intern("other", List.of("a")));
+  }
+
+  @Test
+  void leastRecentlyUsedSetIsDropped() {
+    var permissionSets = new PermissionSets(1);
+    var a = permissionSets.intern("diku", List.of("a"));
+    permissionSets.intern("diku", List.of("b"));
+    assertNotSame(a, permissionSets.intern("diku", List.of("a")));
+    assertEquals(1, permissionSets.metrics().getInteger("size"));
+  }
+
+  @Test
+  void immutable() {
+    var list = new PermissionSets(10).intern("diku", List.of("a"));
+    assertThrows(UnsupportedOperationException.class, () -> list.add("b"));
+  }
+
+  @Test
+  void nullPermissions() {
+    assertNull(new PermissionSets(10).intern("diku", null));
+  }
+
+  @Test
+  void fingerprint() {
+    var list = new PermissionSets(10).intern("diku", List.of("b", "a"));
+    assertEquals(Fingerprints.ofPermissions(List.of("a", "b")), list.fingerprint());
+  }
+
+  @Test
+  void serializedJson() throws Exception {
+    var permissionSets = new PermissionSets(10);
+    var names = permissionSets.intern("diku", List.of("a", "b"));
+    var expanded = permissionSets.intern("diku", List.of(Map.of("permissionName", "a")));
+    var cu = new CompositeUser().withPermissions(new Permissions().withPermissions(names).withUserId("u"));
+    var json = new JsonObject(ObjectMapperTool.getMapper().writeValueAsString(cu));
+    assertEquals(List.of("a", "b"), json.getJsonObject("permissions").getJsonArray("permissions").getList());
+
+    cu.getPermissions().setPermissions(expanded);
+    json = new JsonObject(ObjectMapperTool.getMapper().writeValueAsString(cu));
+    assertEquals("a", json.getJsonObject("permissions").getJsonArray("permissions")
+      .getJsonObject(0).getString("permissionName"));
+  }
+}
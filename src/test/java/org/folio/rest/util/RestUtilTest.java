@@ -0,0 +1,50 @@
+package org.folio.rest.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import org.junit.Test;
+
+public class RestUtilTest {
+
+  @Test
+  public void wrappedResponseDecodesJsonOnce() {
+    var response = new RestUtil.WrappedResponse(200, Buffer.buffer("{\"totalRecords\":3}"), null);
+    assertThat(response.getJson().getInteger("totalRecords"), is(3));
+    assertThat(response.getJson(), is(sameInstance(response.getJson())));
+    assertThat(response.getBody(), is("{\"totalRecords\":3}"));
+  }
+
+  @Test
+  public void wrappedResponseWithoutJsonBody() {
+    assertThat(new RestUtil.WrappedResponse(204, (Buffer) null, null).getJson(), is(nullValue()));
+    assertThat(new RestUtil.WrappedResponse(204, (Buffer) null, null).getBody(), is(nullValue()));
+    assertThat(new RestUtil.WrappedResponse(500, Buffer.buffer("Internal error"), null).getJson(), is(nullValue()));
+    assertThat(new RestUtil.WrappedResponse(200, "{\"a\":1}", null).getJson().getInteger("a"), is(1));
+  }
+
+  @Test
+  public void extractTotalRecordsSkipsNestedBlocks() {
+    var body = Buffer.buffer("{\"loans\":[{\"id\":1,\"totalRecords\":9}],"
+      + "\"resultInfo\":{\"totalRecords\":8,\"diagnostics\":[{\"message\":\"x\"}]},\"totalRecords\":7}");
+    assertThat(RestUtil.extractTotalRecords(body), is(7));
+    assertThat(new RestUtil.WrappedResponse(200, body, null).getTotalRecords(), is(7));
+  }
+
+  @Test
+  public void extractTotalRecordsMissing() {
+    assertThat(RestUtil.extractTotalRecords(Buffer.buffer("{\"loans\":[]}")), is(nullValue()));
+    assertThat(RestUtil.extractTotalRecords(Buffer.buffer()), is(nullValue()));
+    assertThat(RestUtil.extractTotalRecords(null), is(nullValue()));
+  }
+
+  @Test(expected = DecodeException.class)
+  public void extractTotalRecordsNotJson() {
+    RestUtil.extractTotalRecords(Buffer.buffer("Internal error"));
+  }
+
+}
@@ -0,0 +1,73 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.vertx.core.json.JsonObject;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.folio.rest.jaxrs.model.CompositeUser;
+import org.folio.rest.jaxrs.model.User;
+import org.junit.jupiter.api.Test;
+
+class SelfResponseCacheTest {
+
+  private static final String KEY = SelfResponseCache.key("token", List.of("perms", "groups"), false);
+
+  private final AtomicLong now = new AtomicLong(1000);
+
+  private static CompositeUser user(String username) {
+    return new CompositeUser().withUser(new User().withUsername(username));
+  }
+
+  @Test
+  void key() {
+    assertEquals(KEY, SelfResponseCache.key("token", List.of("groups", "perms"), false));
+    assertNotEquals(KEY, SelfResponseCache.key("token", List.of("groups", "perms"), true));
+    assertNotEquals(KEY, SelfResponseCache.key("token", List.of("groups"), false));
+    assertNotEquals(KEY, SelfResponseCache.key("other", List.of("groups", "perms"), false));
+  }
+
+  @Test
+  void hit() throws Exception {
+    var cache = new SelfResponseCache(10, 10_000, now::get);
+    cache.put(KEY, user("maxi"), 5_000);
+    assertEquals("maxi", new JsonObject(cache.get(KEY)).getJsonObject("user").getString("username"));
+    assertNull(cache.get("other"));
+    assertEquals(new JsonObject().put("size", 1).put("hits", 1L).put("misses", 1L).put("hitRatio", 0.5),
+      cache.metrics());
+  }
+
+  @Test
+  void tokenExpiry() throws Exception {
+    var cache = new SelfResponseCache(10, 10_000, now::get);
+    cache.put(KEY, user("maxi"), 5_000);
+    now.set(5_000);
+    assertNull(cache.get(KEY));
+  }
+
+  @Test
+  void expiredTokenIsNotCached() throws Exception {
+    var cache = new SelfResponseCache(10, 10_000, now::get);
+    cache.put(KEY, user("maxi"), 1_000);
+    assertNull(cache.get(KEY));
+    assertEquals(0, cache.metrics().getInteger("size"));
+  }
+
+  @Test
+  void ttl() throws Exception {
+    var cache = new SelfResponseCache(10, 10_000, now::get);
+    cache.put(KEY, user("maxi"), Long.MAX_VALUE);
+    now.set(11_000);
+    assertNull(cache.get(KEY));
+  }
+
+  @Test
+  void disabled() throws Exception {
+    var cache = new SelfResponseCache(10, 0, now::get);
+    cache.put(KEY, user("maxi"), Long.MAX_VALUE);
+    assertNull(cache.get(KEY));
+    assertEquals(0.0, cache.metrics().getDouble("hitRatio"));
+  }
+}
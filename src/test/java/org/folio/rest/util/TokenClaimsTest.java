@@ -0,0 +1,90 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TokenClaimsTest {
+
+  private final AtomicLong now = new AtomicLong(1_000_000);
+
+  private static String token(JsonObject claims, Base64.Encoder encoder) {
+    return "header." + encoder.encodeToString(claims.encode().getBytes(StandardCharsets.UTF_8)) + ".sig";
+  }
+
+  private static String token(JsonObject claims) {
+    return token(claims, Base64.getUrlEncoder().withoutPadding());
+  }
+
+  @Test
+  void decodeBase64Url() {
+    var claims = new JsonObject().put("sub", "fooä?>").put("user_id", "123");
+    assertEquals(claims, TokenClaims.decode(token(claims)));
+  }
+
+  @Test
+  void decodeBase64() {
+    var claims = new JsonObject().put("sub", "fooä?>").put("tenant", "diku");
+    assertEquals(claims, TokenClaims.decode(token(claims, Base64.getEncoder())));
+  }
+
+  @Test
+  void decodeNonJwt() {
+    assertNull(TokenClaims.decode("access_token"));
+    assertNull(TokenClaims.decode("a.b"));
+    assertNull(TokenClaims.decode("a.b.c.d"));
+  }
+
+  @Test
+  void nullToken() {
+    assertNull(new TokenClaims(10, now::get).get(null));
+    assertEquals("", TokenClaims.hash(null));
+  }
+
+  @Test
+  void hit() {
+    var tokenClaims = new TokenClaims(10, now::get);
+    var token = token(new JsonObject().put("sub", "foo").put("exp", 2_000));
+    assertEquals("foo", tokenClaims.get(token).getString("sub"));
+    tokenClaims.get(token).put("sub", "bar");
+    assertEquals("foo", tokenClaims.get(token).getString("sub"));
+    assertEquals(new JsonObject().put("size", 1).put("hits", 2L).put("misses", 1L), tokenClaims.metrics());
+  }
+
+  @Test
+  void expired() {
+    var tokenClaims = new TokenClaims(10, now::get);
+    var token = token(new JsonObject().put("sub", "foo").put("exp", 2_000));
+    tokenClaims.get(token);
+    now.set(2_000_000);
+    assertEquals("foo", tokenClaims.get(token).getString("sub"));
+    assertEquals(new JsonObject().put("size", 0).put("hits", 0L).put("misses", 2L), tokenClaims.metrics());
+  }
+
+  @Test
+  void evictLeastRecentlyUsed() {
+    var tokenClaims = new TokenClaims(2, now::get);
+    var a = token(new JsonObject().put("sub", "a"));
+    var b = token(new JsonObject().put("sub", "b"));
+    var c = token(new JsonObject().put("sub", "c"));
+    tokenClaims.get(a);
+    tokenClaims.get(b);
+    tokenClaims.get(a);
+    tokenClaims.get(c);
+    tokenClaims.get(a);
+    tokenClaims.get(b);
+    assertEquals(new JsonObject().put("size", 2).put("hits", 2L).put("misses", 4L), tokenClaims.metrics());
+  }
+
+  @Test
+  void hash() {
+    assertEquals(64, TokenClaims.hash("token").length());
+    assertNotEquals(TokenClaims.hash("a"), TokenClaims.hash("b"));
+  }
+}
@@ -0,0 +1,65 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TtlCacheTest {
+
+  private final AtomicLong now = new AtomicLong(1000);
+
+  @Test
+  void getReturnsValueUntilExpired() {
+    var cache = new TtlCache<String, String>(10, 100, now::get);
+    cache.put("a", "1");
+    assertEquals("1", cache.get("a"));
+    now.addAndGet(99);
+    assertEquals("1", cache.get("a"));
+    now.addAndGet(1);
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.metrics().getInteger("size"));
+    assertEquals(2, cache.metrics().getLong("hits"));
+    assertEquals(1, cache.metrics().getLong("misses"));
+  }
+
+  @Test
+  void leastRecentlyUsedIsDroppedWhenFull() {
+    var cache = new TtlCache<String, String>(2, 100, now::get);
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.get("a");
+    cache.put("c", "3");
+    assertEquals("1", cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals("3", cache.get("c"));
+  }
+
+  @Test
+  void removeExpired() {
+    var cache = new TtlCache<String, String>(10, 100, now::get);
+    cache.put("a", "1");
+    now.addAndGet(50);
+    cache.put("b", "2");
+    now.addAndGet(50);
+    cache.removeExpired();
+    assertEquals(1, cache.metrics().getInteger("size"));
+    assertEquals("2", cache.get("b"));
+  }
+
+  @Test
+  void invalidate() {
+    var cache = new TtlCache<String, String>(10, 100, now::get);
+    cache.put("x|a", "1");
+    cache.put("x|b", "2");
+    cache.put("y|a", "3");
+    cache.invalidate("x|a");
+    assertNull(cache.get("x|a"));
+    cache.invalidateAll(key -> key.startsWith("x|"));
+    assertNull(cache.get("x|b"));
+    assertEquals("3", cache.get("y|a"));
+    cache.invalidateAll();
+    assertNull(cache.get("y|a"));
+  }
+}
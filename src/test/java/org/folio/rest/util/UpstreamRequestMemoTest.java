@@ -0,0 +1,61 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.folio.rest.tools.client.Response;
+import org.folio.rest.tools.client.interfaces.HttpClientInterface;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("java:S1874")
+class UpstreamRequestMemoTest {
+
+  @Test
+  void getSendsIdenticalRequestOnce() throws Exception {
+    var client = mock(HttpClientInterface.class);
+    var response = CompletableFuture.completedFuture(new Response());
+    when(client.request(eq("/perms/users?query=userId==1"), anyMap())).thenReturn(response);
+    when(client.request(eq("/perms/users?query=userId==2"), anyMap())).thenReturn(new CompletableFuture<>());
+
+    var memo = new UpstreamRequestMemo(client);
+    assertSame(response, memo.get("/perms/users?query=userId==1", Map.of()));
+    assertSame(response, memo.get("/perms/users?query=userId==1", Map.of()));
+    memo.get("/perms/users?query=userId==2", Map.of());
+
+    verify(client, times(1)).request(eq("/perms/users?query=userId==1"), anyMap());
+    assertEquals(1, memo.getSaved());
+  }
+
+  @Test
+  void chainedSendsIdenticalRequestOnceAndRunsEveryCheck() throws Exception {
+    var client = mock(HttpClientInterface.class);
+    var chainedResponse = new Response();
+    when(client.chainedRequest(eq("/groups/{patronGroup}"), anyMap(), isNull(), any()))
+      .thenReturn(previous -> CompletableFuture.completedFuture(chainedResponse));
+
+    var memo = new UpstreamRequestMemo(client);
+    var source = CompletableFuture.completedFuture(new Response());
+    var checks = new AtomicInteger();
+    var first = memo.chained(source, "/groups/{patronGroup}", Map.of(), null, null,
+      response -> checks.incrementAndGet());
+    var second = memo.chained(source, "/groups/{patronGroup}", Map.of(), null, null,
+      response -> checks.incrementAndGet());
+
+    assertSame(chainedResponse, first.get());
+    assertSame(chainedResponse, second.get());
+    verify(client, times(1)).chainedRequest(eq("/groups/{patronGroup}"), anyMap(), isNull(), any());
+    assertEquals(1, checks.get());
+    assertEquals(1, memo.getSaved());
+  }
+}
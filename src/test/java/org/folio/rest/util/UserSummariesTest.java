@@ -0,0 +1,40 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+class UserSummariesTest {
+
+  @Test
+  void projectsUsersWithTheirGroupNames() {
+    var users = new JsonObject()
+      .put("users", new JsonArray()
+        .add(new JsonObject().put("id", "u1").put("username", "maxi").put("barcode", "123")
+          .put("active", true).put("patronGroup", "g1").put("type", "staff")
+          .put("personal", new JsonObject().put("lastName", "Max").put("firstName", "Maxi")
+            .put("email", "maxi@maxi.com")))
+        .add(new JsonObject().put("id", "u2").put("patronGroup", "g2")))
+      .put("totalRecords", 12);
+    var groups = new JsonArray().add(new JsonObject().put("id", "g1").put("group", "staff"));
+
+    var summaries = UserSummaries.project(users, groups);
+
+    assertEquals(12, summaries.getInteger("totalRecords"));
+    assertEquals(new JsonObject().put("id", "u1").put("username", "maxi").put("barcode", "123")
+        .put("active", true).put("patronGroup", "g1").put("lastName", "Max").put("firstName", "Maxi")
+        .put("patronGroupName", "staff"),
+      summaries.getJsonArray("userSummaries").getJsonObject(0));
+    assertEquals(new JsonObject().put("id", "u2").put("patronGroup", "g2"),
+      summaries.getJsonArray("userSummaries").getJsonObject(1));
+  }
+
+  @Test
+  void noUsers() {
+    var summaries = UserSummaries.project(new JsonObject().put("totalRecords", 0), null);
+
+    assertEquals(new JsonObject().put("userSummaries", new JsonArray()).put("totalRecords", 0), summaries);
+  }
+}
@@ -0,0 +1,52 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+class UsersCursorTest {
+
+  private static final JsonArray PAGE = new JsonArray()
+    .add(new JsonObject().put("id", "1"))
+    .add(new JsonObject().put("id", "2"));
+
+  @Test
+  void firstPage() {
+    assertEquals("cql.allRecords=1 sortBy id", UsersCursor.query(null, UsersCursor.FIRST));
+    assertEquals("(active==true) sortBy id", UsersCursor.query("active==true", UsersCursor.FIRST));
+  }
+
+  @Test
+  void nextPageContinuesAfterTheLastId() {
+    String next = UsersCursor.next(PAGE, 2);
+    assertEquals("id > \"2\" sortBy id", UsersCursor.query(null, next));
+    assertEquals("(active==true) and id > \"2\" sortBy id", UsersCursor.query("active==true", next));
+  }
+
+  @Test
+  void lastPageHasNoNextCursor() {
+    assertNull(UsersCursor.next(PAGE, 3));
+    assertNull(UsersCursor.next(new JsonArray(), 0));
+  }
+
+  @Test
+  void invalidCursorOrSortByIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> UsersCursor.query(null, "not a cursor"));
+    assertThrows(IllegalArgumentException.class, () -> UsersCursor.query("active==true sortBy username", "*"));
+  }
+
+  @Test
+  void sortByInSearchTermIsAccepted() {
+    assertEquals("(name=\"sortBy x\") sortBy id", UsersCursor.query("name=\"sortBy x\"", "*"));
+    assertEquals("(name=\"a\\\" sortBy x\") sortBy id", UsersCursor.query("name=\"a\\\" sortBy x\"", "*"));
+  }
+
+  @Test
+  void maskQuoted() {
+    assertEquals("a=\"___\" and b=\"_____\"", UsersCursor.maskQuoted("a=\"x y\" and b=\"\\\"z\\\"\""));
+  }
+}
@@ -0,0 +1,139 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+class UsersQueryCacheTest {
+
+  private static final String KEY = UsersQueryCache.key("http://okapi", "diku", "token", "active==true",
+    List.of("perms"), 0, 10);
+
+  private final AtomicLong now = new AtomicLong(1000);
+  private final AtomicInteger calls = new AtomicInteger();
+  private final List<Handler<AsyncResult<Response>>> pending = new ArrayList<>();
+
+  private void load(Handler<AsyncResult<Response>> handler) {
+    calls.incrementAndGet();
+    pending.add(handler);
+  }
+
+  private static void respond(Handler<AsyncResult<Response>> handler, int status, String entity) {
+    handler.handle(Future.succeededFuture(Response.status(status).entity(entity).build()));
+  }
+
+  private List<Object> get(UsersQueryCache cache, String key) {
+    List<Object> entities = new ArrayList<>();
+    cache.get(key, this::load, result -> entities.add(result.result().getEntity()));
+    return entities;
+  }
+
+  @Test
+  void disabled() {
+    var cache = new UsersQueryCache(10, 0, 100, now::get);
+    get(cache, KEY);
+    get(cache, KEY);
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void identicalQueriesInFlightAreCoalesced() {
+    var cache = new UsersQueryCache(10, 3000, 100, now::get);
+    var first = get(cache, KEY);
+    var second = get(cache, KEY);
+    assertEquals(1, calls.get());
+    assertEquals(List.of(), second);
+
+    respond(pending.get(0), 200, "page");
+    assertEquals(List.of("page"), first);
+    assertEquals(List.of("page"), second);
+    assertEquals(1, cache.metrics().getLong("coalesced"));
+    assertEquals(0, cache.metrics().getInteger("inFlight"));
+  }
+
+  @Test
+  void responsesExpire() {
+    var cache = new UsersQueryCache(10, 3000, 100, now::get);
+    get(cache, KEY);
+    respond(pending.get(0), 200, "page");
+    now.addAndGet(2999);
+    assertEquals(List.of("page"), get(cache, KEY));
+    assertEquals(1, calls.get());
+    now.addAndGet(1);
+    get(cache, KEY);
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void largeResponsesAreNotCached() {
+    var cache = new UsersQueryCache(10, 3000, 100, now::get);
+    get(cache, KEY);
+    respond(pending.get(0), 200, "x".repeat(101));
+    get(cache, KEY);
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void expiredResponsesAreSwept() {
+    var cache = new UsersQueryCache(10, 3000, 100, now::get);
+    get(cache, KEY);
+    respond(pending.get(0), 200, "page");
+    now.addAndGet(3000);
+    String other = UsersQueryCache.key("http://okapi", "diku", "token", "active==false", List.of("perms"), 0, 10);
+    get(cache, other);
+    respond(pending.get(1), 200, "other");
+    assertEquals(1, cache.metrics().getInteger("size"));
+  }
+
+  @Test
+  void errorsAreNotCached() {
+    var cache = new UsersQueryCache(10, 3000, 100, now::get);
+    get(cache, KEY);
+    respond(pending.get(0), 500, "error");
+    get(cache, KEY);
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void throwingLoaderIsNotLeftInFlight() {
+    var cache = new UsersQueryCache(10, 3000, 100, now::get);
+    List<Throwable> failures = new ArrayList<>();
+    cache.get(KEY, handler -> {
+      throw new IllegalStateException("loader failed");
+    }, result -> failures.add(result.cause()));
+    assertEquals("loader failed", failures.get(0).getMessage());
+    assertEquals(0, cache.metrics().getInteger("inFlight"));
+
+    get(cache, KEY);
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void keys() {
+    assertEquals(KEY, UsersQueryCache.key("http://okapi", "diku", "token", "  active==true ",
+      List.of("perms"), 0, 10));
+    assertEquals(
+      UsersQueryCache.key("http://okapi", "diku", "token", null, List.of("perms", "groups")),
+      UsersQueryCache.key("http://okapi", "diku", "token", null, List.of("groups", "perms")));
+    assertNotEquals(KEY, UsersQueryCache.key("http://okapi", "diku", "other", "active==true",
+      List.of("perms"), 0, 10));
+    assertNotEquals(KEY, UsersQueryCache.key("http://okapi", "diku", "token", "active==true",
+      List.of("perms"), 10, 10));
+  }
+
+  @Test
+  void normalize() {
+    assertEquals("a==\"x  y\" and b==1", UsersQueryCache.normalize(" a==\"x  y\"\n and   b==1 "));
+    assertEquals("a==\"x\\\"  y\"", UsersQueryCache.normalize("a==\"x\\\"  y\""));
+    assertEquals("", UsersQueryCache.normalize(null));
+  }
+}
@@ -0,0 +1,51 @@
+package org.folio.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.folio.rest.util.UsersSubPages.Range;
+import org.junit.jupiter.api.Test;
+
+class UsersSubPagesTest {
+
+  @Test
+  void smallPageIsNotSplit() {
+    assertEquals(List.of(new Range(20, 1000)), UsersSubPages.split(20, 1000, 1000));
+  }
+
+  @Test
+  void largePageIsSplitInOrder() {
+    assertEquals(List.of(new Range(20, 1000), new Range(1020, 1000), new Range(2020, 500)),
+      UsersSubPages.split(20, 2500, 1000));
+  }
+
+  @Test
+  void disabled() {
+    assertEquals(List.of(new Range(0, 5000)), UsersSubPages.split(0, 5000, 0));
+  }
+
+  @Test
+  void unsortedQueryIsNotSplit() {
+    assertEquals(List.of(new Range(0, 5000)), UsersSubPages.split("active==true", 0, 5000));
+    assertEquals(List.of(new Range(0, 5000)), UsersSubPages.split(null, 0, 5000));
+  }
+
+  @Test
+  void uniqueOrder() {
+    assertTrue(UsersSubPages.hasUniqueOrder("cql.allRecords=1 sortBy id"));
+    assertTrue(UsersSubPages.hasUniqueOrder("active==true SORTBY personal.lastName id/sort.descending"));
+    assertTrue(UsersSubPages.hasUniqueOrder("(id>\"a\") sortby \"id\""));
+  }
+
+  @Test
+  void nonUniqueOrder() {
+    assertFalse(UsersSubPages.hasUniqueOrder(null));
+    assertFalse(UsersSubPages.hasUniqueOrder("active==true"));
+    assertFalse(UsersSubPages.hasUniqueOrder("active==true sortBy personal.lastName"));
+    assertFalse(UsersSubPages.hasUniqueOrder("active==true sortBy id personal.lastName"));
+    assertFalse(UsersSubPages.hasUniqueOrder("active==true sortBy username"));
+    assertFalse(UsersSubPages.hasUniqueOrder("name=\"sortBy id\""));
+  }
+}
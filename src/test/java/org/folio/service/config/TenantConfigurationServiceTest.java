@@ -0,0 +1,166 @@
+package org.folio.service.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.folio.rest.client.ConfigurationClient;
+import org.folio.rest.client.SettingsClient;
+import org.folio.rest.jaxrs.model.Config;
+import org.folio.rest.jaxrs.model.Configurations;
+import org.folio.rest.util.OkapiConnectionParams;
+import org.folio.service.PasswordResetSetting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TenantConfigurationServiceTest {
+
+  private static final OkapiConnectionParams PARAMS =
+    new OkapiConnectionParams("http://localhost:9130", "diku", "token");
+
+  private final AtomicLong now = new AtomicLong(1_000);
+  private ConfigurationClient configurationClient;
+  private SettingsClient settingsClient;
+  private TenantConfigurationServiceImpl service;
+
+  @BeforeEach
+  void setUp() {
+    configurationClient = mock(ConfigurationClient.class);
+    settingsClient = mock(SettingsClient.class);
+    service = new TenantConfigurationServiceImpl(mock(Vertx.class), configurationClient, settingsClient,
+      60_000, 600_000, now::get);
+  }
+
+  @Test
+  void passwordResetConfigurationIsLoadedOnce() {
+    mockSettings("https://folio.example.com");
+
+    service.getPasswordResetConfiguration(PARAMS);
+    var config = service.getPasswordResetConfiguration(PARAMS).result();
+
+    assertEquals("https://folio.example.com", config.get(PasswordResetSetting.FOLIO_HOST));
+    assertEquals("/reset", config.get(PasswordResetSetting.RESET_PASSWORD_UI_PATH));
+    verify(settingsClient, times(1)).getBaseUrl(any());
+    assertEquals(1, service.metrics().getLong("hits"));
+  }
+
+  @Test
+  void failedLoadIsNotKept() {
+    when(settingsClient.getBaseUrl(any())).thenReturn(Future.failedFuture("down"));
+    when(configurationClient.lookupConfigByModuleName(anyString(), any()))
+      .thenReturn(Future.failedFuture("down"));
+
+    assertTrue(service.getPasswordResetConfiguration(PARAMS).failed());
+    mockSettings("https://folio.example.com");
+
+    assertEquals("https://folio.example.com",
+      service.getPasswordResetConfiguration(PARAMS).result().get(PasswordResetSetting.FOLIO_HOST));
+  }
+
+  @Test
+  void refreshReplacesSnapshotAndFailedRefreshKeepsIt() {
+    mockSettings("https://old.example.com");
+    service.getPasswordResetConfiguration(PARAMS);
+
+    now.addAndGet(60_000);
+    mockSettings("https://new.example.com");
+    assertEquals("https://old.example.com",
+      service.getPasswordResetConfiguration(PARAMS).result().get(PasswordResetSetting.FOLIO_HOST));
+    assertEquals("https://new.example.com",
+      service.getPasswordResetConfiguration(PARAMS).result().get(PasswordResetSetting.FOLIO_HOST));
+
+    now.addAndGet(60_000);
+    when(settingsClient.getBaseUrl(any())).thenReturn(Future.failedFuture("down"));
+    when(configurationClient.lookupConfigByModuleName(anyString(), any()))
+      .thenReturn(Future.failedFuture("down"));
+    service.getPasswordResetConfiguration(PARAMS);
+    assertEquals("https://new.example.com",
+      service.getPasswordResetConfiguration(PARAMS).result().get(PasswordResetSetting.FOLIO_HOST));
+    assertEquals(2, service.metrics().getLong("refreshes"));
+  }
+
+  @Test
+  void refreshUsesConnectionParamsOfTheCaller() {
+    mockSettings("https://folio.example.com");
+    service.getPasswordResetConfiguration(PARAMS);
+
+    now.addAndGet(60_000);
+    var caller = new OkapiConnectionParams("http://localhost:9130", "diku", "fresh-token");
+    service.getPasswordResetConfiguration(caller);
+
+    verify(settingsClient, times(1)).getBaseUrl(PARAMS);
+    verify(settingsClient, times(1)).getBaseUrl(caller);
+  }
+
+  @Test
+  void snapshotOlderThanTwoIntervalsIsLoadedAgain() {
+    mockSettings("https://old.example.com");
+    service.getPasswordResetConfiguration(PARAMS);
+
+    now.addAndGet(120_000);
+    mockSettings("https://new.example.com");
+    assertEquals("https://new.example.com",
+      service.getPasswordResetConfiguration(PARAMS).result().get(PasswordResetSetting.FOLIO_HOST));
+    assertEquals(2, service.metrics().getLong("loads"));
+  }
+
+  @Test
+  void idleSnapshotIsDropped() {
+    mockSettings("https://folio.example.com");
+    service.getPasswordResetConfiguration(PARAMS);
+
+    now.addAndGet(600_000);
+    service.dropIdleSnapshots();
+
+    assertEquals(0, service.metrics().getInteger("size"));
+  }
+
+  @Test
+  void locateUserFieldsAreFilteredByAlias() {
+    var configurations = new Configurations().withConfigs(List.of(
+      new Config().withCode("userName").withValue("username"),
+      new Config().withCode("phoneNumber").withValue("personal.phone, personal.mobilePhone"),
+      new Config().withCode("email").withValue("personal.email")));
+    when(configurationClient.lookupConfigsByQuery(anyString(), anyInt(), any()))
+      .thenReturn(Future.succeededFuture(configurations));
+
+    assertEquals(List.of("personal.phone", "personal.mobilePhone", "personal.email"),
+      service.getLocateUserFields(List.of("phoneNumber", "email"), PARAMS).result());
+    assertEquals(List.of("username"),
+      service.getLocateUserFields(List.of("userName"), PARAMS).result());
+    verify(configurationClient, times(1)).lookupConfigsByQuery(anyString(), anyInt(), any());
+  }
+
+  @Test
+  void zeroIntervalDisablesSnapshot() {
+    service = new TenantConfigurationServiceImpl(mock(Vertx.class), configurationClient, settingsClient,
+      0, 600_000, now::get);
+    mockSettings("https://folio.example.com");
+
+    service.getPasswordResetConfiguration(PARAMS);
+    service.getPasswordResetConfiguration(PARAMS);
+
+    verify(settingsClient, times(2)).getBaseUrl(any());
+  }
+
+  private void mockSettings(String baseUrl) {
+    when(settingsClient.getBaseUrl(any())).thenReturn(Future.succeededFuture(baseUrl));
+    when(settingsClient.lookupPasswordResetSettings(any())).thenAnswer(invocation -> {
+      Map<PasswordResetSetting, String> settings = new EnumMap<>(PasswordResetSetting.class);
+      settings.put(PasswordResetSetting.RESET_PASSWORD_UI_PATH, "/reset");
+      return Future.succeededFuture(settings);
+    });
+  }
+}